@@ -0,0 +1,152 @@
+package chiron;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic, reproducible task lists and command lines for the benchmarks.
+ *
+ * <p>The same seed always gives the same data, so results can be compared between runs and
+ * machines. Tasks are 40% todos, 30% deadlines and 30% events, about a third of them done,
+ * with descriptions of two to six words drawn from a small vocabulary, so that searches find
+ * many tasks, and dates spread over two years, a quarter of them without a time.
+ *
+ * <p>Run as a program to write a storage file to try the application on:
+ * {@code ./gradlew generateDataset -Pcount=100000 -Pout=data/chiron.txt [-Pformat=binary]}
+ */
+public class DatasetGenerator {
+    static final long DEFAULT_SEED = 42;
+
+    private static final String[] WORDS = {
+        "read", "write", "review", "book", "essay", "report", "project", "meeting", "call", "email",
+        "lunch", "dinner", "gym", "run", "groceries", "rent", "bills", "tax", "exam", "lecture",
+        "tutorial", "lab", "assignment", "draft", "slides", "demo", "team", "client", "plan", "budget",
+        "chiron", "garden", "laundry", "dentist", "doctor", "flight", "hotel", "visa", "birthday", "party"
+    };
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int MINUTES_IN_TWO_YEARS = 2 * 365 * 24 * 60;
+
+    private final Random random;
+    private int counter;
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed The seed that determines the data.
+     */
+    public DatasetGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes a storage file of generated tasks.
+     *
+     * @param args The number of tasks, the output path, and optionally the format (text or binary).
+     * @throws ChironException If the file cannot be written.
+     */
+    public static void main(String[] args) throws ChironException {
+        if (args.length < 2) {
+            System.err.println("Usage: DatasetGenerator <count> <path> [text|binary]");
+            return;
+        }
+        int count = Integer.parseInt(args[0]);
+        Storage storage = new Storage(args[1]);
+        if (args.length > 2) {
+            storage.setFormat(Storage.Format.valueOf(args[2].toUpperCase()));
+        }
+        storage.save(new TaskList(new DatasetGenerator(DEFAULT_SEED).tasks(count)));
+        System.out.println("Wrote " + count + " tasks to " + args[1]);
+    }
+
+    /**
+     * Generates distinct tasks.
+     *
+     * @param count The number of tasks.
+     * @return The tasks.
+     */
+    public List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(task());
+        }
+        return tasks;
+    }
+
+    /**
+     * Generates one task, distinct from every other task of this generator.
+     *
+     * @return The task.
+     */
+    public Task task() {
+        String description = description();
+        int kind = random.nextInt(10);
+        Task task;
+        if (kind < 4) {
+            task = new Todo(description);
+        } else if (kind < 7) {
+            boolean hasTime = random.nextInt(4) != 0;
+            LocalDateTime by = date();
+            task = new Deadline(description, hasTime ? by : by.toLocalDate().atStartOfDay(), hasTime);
+        } else {
+            LocalDateTime from = date();
+            task = new Event(description, from, true, from.plusMinutes(30 + random.nextInt(8 * 60)), true);
+        }
+        task.setDone(random.nextInt(3) == 0);
+        return task;
+    }
+
+    /**
+     * Generates command lines as a user would type them: mostly adds, plus marks, finds and lists.
+     *
+     * @param count The number of command lines.
+     * @return The command lines.
+     */
+    public List<String> commands(int count) {
+        List<String> commands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            commands.add(switch (random.nextInt(8)) {
+                case 0, 1 -> "todo " + description();
+                case 2, 3 -> "deadline " + description() + " /by " + dateText();
+                case 4 -> "event " + description() + " /from " + dateText() + " /to " + dateText();
+                case 5 -> "mark " + (1 + random.nextInt(1000));
+                case 6 -> "find " + word();
+                default -> "list --page " + (1 + random.nextInt(10));
+            });
+        }
+        return commands;
+    }
+
+    /**
+     * Generates dates as a user would type them, with or without a time.
+     *
+     * @return A date in the input format.
+     */
+    public String dateText() {
+        return Parser.storeDateTime(date(), random.nextBoolean());
+    }
+
+    /**
+     * Returns a word of the vocabulary.
+     *
+     * @return The word.
+     */
+    public String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private String description() {
+        StringBuilder description = new StringBuilder(word());
+        int words = 1 + random.nextInt(5);
+        for (int i = 0; i < words; i++) {
+            description.append(' ').append(word());
+        }
+        // The counter keeps every description, and so every task, distinct
+        return description.append(' ').append(counter++).toString();
+    }
+
+    private LocalDateTime date() {
+        return START.plusMinutes(random.nextInt(MINUTES_IN_TWO_YEARS));
+    }
+}
@@ -0,0 +1,101 @@
+package chiron;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How many dialog bubbles can be created per second, comparing the programmatic DialogBox with
+ * the FXML it replaced, which was parsed anew for every bubble.
+ *
+ * <p>The bubbles are never shown, and nodes outside a scene may be built on any thread, so they
+ * are created on the benchmark thread; the JavaFX toolkit is only started for the image and CSS
+ * machinery. Needs a display, or a headless Monocle setup:
+ * {@code ./gradlew jmh -PjmhIncludes=DialogBoxBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DialogBoxBenchmark {
+    /** The former DialogBox.fxml, minus the fx:root so that it can be loaded on its own. */
+    private static final byte[] FXML = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<?import javafx.geometry.Insets?>\n"
+            + "<?import javafx.scene.control.Label?>\n"
+            + "<?import javafx.scene.image.ImageView?>\n"
+            + "<?import javafx.scene.layout.HBox?>\n"
+            + "<HBox alignment=\"TOP_RIGHT\" spacing=\"15.0\" maxHeight=\"1.7976931348623157E308\""
+            + " maxWidth=\"1.7976931348623157E308\" prefWidth=\"400.0\""
+            + " xmlns=\"http://javafx.com/javafx/17\" xmlns:fx=\"http://javafx.com/fxml/1\">\n"
+            + "   <children>\n"
+            + "      <Label fx:id=\"dialog\" minHeight=\"-Infinity\" text=\"Label\" wrapText=\"true\""
+            + " styleClass=\"dialog-label\" />\n"
+            + "      <ImageView fx:id=\"displayPicture\" fitHeight=\"60.0\" fitWidth=\"60.0\""
+            + " pickOnBounds=\"true\" preserveRatio=\"true\" />\n"
+            + "   </children>\n"
+            + "   <padding>\n"
+            + "      <Insets bottom=\"10.0\" left=\"10.0\" right=\"10.0\" top=\"10.0\" />\n"
+            + "   </padding>\n"
+            + "</HBox>\n").getBytes(StandardCharsets.UTF_8);
+
+    private Image image;
+
+    /**
+     * Starts the JavaFX toolkit and creates the picture shown in every bubble.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Platform.startup(() -> { });
+        image = new WritableImage(60, 60);
+    }
+
+    /**
+     * Stops the JavaFX toolkit.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Platform.exit();
+    }
+
+    /**
+     * Creates a bubble by parsing the FXML, as every message once did.
+     *
+     * @return The bubble, so that it is not optimized away.
+     * @throws IOException Never, as the FXML is well-formed.
+     */
+    @Benchmark
+    public Object fxmlPerBubble() throws IOException {
+        return new FXMLLoader().load(new ByteArrayInputStream(FXML));
+    }
+
+    /**
+     * Creates a bubble in code, as DialogBox does now.
+     *
+     * @return The bubble, so that it is not optimized away.
+     */
+    @Benchmark
+    public Object programmatic() {
+        return DialogBox.getChironDialog("Chiron: Well done.", image);
+    }
+}
@@ -0,0 +1,71 @@
+package chiron;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to parse a command line into a Command, and a date as typed by the user.
+ * Each call takes the next of a fixed set of generated inputs, so that the branches of the
+ * parser are exercised in a realistic mix rather than one input being learned by the JIT.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    private static final int INPUTS = 1024;
+
+    private String[] commands;
+    private String[] dates;
+    private int next;
+
+    /**
+     * Generates the command lines and dates.
+     */
+    @Setup
+    public void setUp() {
+        DatasetGenerator generator = new DatasetGenerator(DatasetGenerator.DEFAULT_SEED);
+        List<String> lines = generator.commands(INPUTS);
+        commands = lines.toArray(new String[0]);
+        dates = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            dates[i] = generator.dateText();
+        }
+    }
+
+    /**
+     * Parses one command line.
+     *
+     * @return The command.
+     * @throws ChironException Never, as every generated command is valid.
+     */
+    @Benchmark
+    public Command parse() throws ChironException {
+        next = (next + 1) & (INPUTS - 1);
+        return Parser.parse(commands[next]);
+    }
+
+    /**
+     * Parses one date, with or without a time.
+     *
+     * @return The parsed date.
+     */
+    @Benchmark
+    public Parser.ParsedDateTime parseDateTime() {
+        next = (next + 1) & (INPUTS - 1);
+        return Parser.parseDateTime(dates[next]);
+    }
+}
@@ -0,0 +1,68 @@
+package chiron;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to word a reply with the Ui and render it as the CLI prints it: a page of the list,
+ * which formats every task on it, and a find reply with a given number of matches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+    private static final int LIST_SIZE = 100_000;
+
+    @Param({"10", "100", "1000"})
+    private int matches;
+
+    private final Ui ui = new Ui();
+    private final TextRenderer renderer = new TextRenderer(true);
+    private List<Task> tasks;
+    private int page;
+
+    /**
+     * Generates the list to render.
+     */
+    @Setup
+    public void setUp() {
+        tasks = new TaskList(new DatasetGenerator(DatasetGenerator.DEFAULT_SEED).tasks(LIST_SIZE)).snapshot();
+    }
+
+    /**
+     * Renders the next page of the list, as the list command does.
+     *
+     * @return The text to print.
+     */
+    @Benchmark
+    public String listPage() {
+        page = (page + 1) % (LIST_SIZE / ListCommand.PAGE_SIZE);
+        int from = page * ListCommand.PAGE_SIZE;
+        return renderer.render(ui.showList(tasks, from, from + ListCommand.PAGE_SIZE));
+    }
+
+    /**
+     * Renders the reply to a find with the given number of matches.
+     *
+     * @return The text to print.
+     */
+    @Benchmark
+    public String findResult() {
+        return renderer.render(ui.showFindResult(tasks.subList(0, matches)));
+    }
+}
@@ -0,0 +1,181 @@
+package chiron;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to read a text task file at startup, comparing the Scanner and regex split that Storage
+ * once used with the buffered reader and {@link TaskLineParser} that replaced them. Only the
+ * parsing differs; the whole of {@link Storage#load()} is measured by {@link StorageBenchmark}.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhIncludes=StartupBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class StartupBenchmark {
+    private static final String HEADER_PREFIX = "# ";
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    @Param({"100000", "2000000"})
+    private int size;
+
+    private Path directory;
+    private File file;
+
+    /**
+     * Writes a text task file of generated tasks.
+     *
+     * @throws Exception If the file cannot be written.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("chiron-startup-benchmark");
+        file = directory.resolve("chiron.txt").toFile();
+        Storage writer = new Storage(file.getPath());
+        writer.setFormat(Storage.Format.TEXT);
+        writer.save(new TaskList(new DatasetGenerator(DatasetGenerator.DEFAULT_SEED).tasks(size)));
+    }
+
+    /**
+     * Deletes the file written by the benchmark.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Reads the file as Storage did before TaskLineParser: a Scanner, and a regex split per line.
+     *
+     * @return The loaded tasks.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public List<Task> scannerAndSplit() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (Scanner scanner = new Scanner(file, StandardCharsets.UTF_8)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                if (line.startsWith(HEADER_PREFIX)) {
+                    continue;
+                }
+                Task task = splitLine(line);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Reads the file as Storage does now: a large buffered reader, and a single pass per line.
+     *
+     * @return The loaded tasks.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public List<Task> readerAndTokenizer() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        TaskLineParser parser = new TaskLineParser();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(HEADER_PREFIX)) {
+                    continue;
+                }
+                Task task = parser.parse(line);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Parses a line of the storage file as the former Storage.parseLine did.
+     *
+     * @param line The line to parse.
+     * @return The parsed task, or null if the line is malformed.
+     */
+    private static Task splitLine(String line) {
+        String[] parts = line.split("\\s*\\|\\s*");
+        if (parts.length < 3) {
+            return null;
+        }
+
+        String type = parts[0].trim();
+        boolean done = "1".equals(parts[1].trim());
+        String description = parts[2].trim();
+
+        Task t;
+        switch (type) {
+            case "T":
+                t = new Todo(description);
+                break;
+            case "D":
+                if (parts.length < 4) {
+                    return null;
+                }
+                Parser.ParsedDateTime by = Parser.parseDateTime(parts[3].trim());
+                if (by == null) {
+                    return null;
+                }
+                t = new Deadline(description, by.value(), by.hasTime());
+                break;
+            case "E":
+                if (parts.length < 5) {
+                    return null;
+                }
+                Parser.ParsedDateTime from = Parser.parseDateTime(parts[3].trim());
+                Parser.ParsedDateTime to = Parser.parseDateTime(parts[4].trim());
+                if (from == null || to == null) {
+                    return null;
+                }
+                t = new Event(description, from.value(), from.hasTime(), to.value(), to.hasTime());
+                break;
+            default:
+                return null;
+        }
+
+        t.setDone(done);
+        return t;
+    }
+}
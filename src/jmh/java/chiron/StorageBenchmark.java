@@ -0,0 +1,99 @@
+package chiron;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to load and save a whole task file of 1k, 100k and 1M generated tasks, in both formats.
+ * Saves use the default FLUSH durability, so they include the rename but not an fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"TEXT", "BINARY"})
+    private Storage.Format format;
+
+    private Path directory;
+    private String loadPath;
+    private Storage saver;
+    private TaskList tasks;
+
+    /**
+     * Writes the file to load and prepares the list to save.
+     *
+     * @throws Exception If the files cannot be written.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("chiron-storage-benchmark");
+        tasks = new TaskList(new DatasetGenerator(DatasetGenerator.DEFAULT_SEED).tasks(size));
+
+        loadPath = directory.resolve("load.txt").toString();
+        Storage writer = new Storage(loadPath);
+        writer.setFormat(format);
+        writer.save(tasks);
+
+        saver = new Storage(directory.resolve("save.txt").toString());
+        saver.setFormat(format);
+    }
+
+    /**
+     * Deletes the files written by the benchmark.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Loads the whole file, as at startup.
+     *
+     * @return The loaded tasks.
+     * @throws ChironException If the file cannot be read.
+     */
+    @Benchmark
+    public List<Task> load() throws ChironException {
+        return new Storage(loadPath).load();
+    }
+
+    /**
+     * Saves the whole list, as a compaction or a save without the journal does.
+     *
+     * @throws ChironException If the file cannot be written.
+     */
+    @Benchmark
+    public void save() throws ChironException {
+        saver.save(tasks);
+    }
+}
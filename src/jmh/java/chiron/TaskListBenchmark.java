@@ -0,0 +1,97 @@
+package chiron;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of a TaskList shared by several threads, with a mix of readers and writers.
+ * Reads are substring searches and list pages, writes are adds, removes and marks in equal
+ * shares, so that the list keeps roughly its initial size.
+ *
+ * <p>The thread count is set from the command line, e.g. for 1 to 32 threads:
+ * {@code for t in 1 2 4 8 16 32; do ./gradlew jmh -PjmhThreads=$t -PjmhIncludes=TaskListBenchmark; done}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"10000"})
+    private int size;
+
+    @Param({"100", "90", "50"})
+    private int readPercent;
+
+    private TaskList tasks;
+    private final AtomicLong nextTask = new AtomicLong();
+
+    /**
+     * Fills the list with tasks whose descriptions share words, so that searches find several of them.
+     */
+    @Setup
+    public void setUp() {
+        List<Task> initial = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            initial.add(new Todo("task " + i + " for project " + (i % 100)));
+        }
+        tasks = new TaskList(initial);
+        nextTask.set(size);
+    }
+
+    /**
+     * Performs one read or write, chosen at random according to the read percentage.
+     *
+     * @return A value derived from the result, so that the work is not optimized away.
+     * @throws ChironException Never, as failed removes are expected and ignored.
+     */
+    @Benchmark
+    public int mixed() throws ChironException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < readPercent) {
+            if (random.nextBoolean()) {
+                return tasks.find("project " + random.nextInt(100)).size();
+            }
+            List<Task> all = tasks.snapshot();
+            int from = random.nextInt(Math.max(1, all.size() - PAGE_SIZE));
+            return all.subList(from, Math.min(from + PAGE_SIZE, all.size())).hashCode();
+        }
+
+        switch (random.nextInt(3)) {
+            case 0:
+                tasks.add(new Todo("task " + nextTask.getAndIncrement() + " for project " + random.nextInt(100)));
+                return 0;
+            case 1:
+                try {
+                    return tasks.remove(random.nextInt(Math.max(1, tasks.size()))).hashCode();
+                } catch (ChironException e) {
+                    // Another thread removed the last task in between; a lost write is fine here
+                    return -1;
+                }
+            default:
+                try {
+                    return tasks.setDone(random.nextInt(Math.max(1, tasks.size())), random.nextBoolean()).hashCode();
+                } catch (ChironException e) {
+                    return -1;
+                }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package chiron;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of single-threaded TaskList operations on a list of generated tasks, with every index
+ * kept up to date. {@link TaskListBenchmark} covers the same list shared between threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TaskListOperationsBenchmark {
+    private static final int ADDS_PER_INVOCATION = 1000;
+    private static final LocalDateTime WEEK_START = LocalDateTime.of(2024, 6, 3, 0, 0);
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private TaskList tasks;
+    private List<Task> extra;
+    private DatasetGenerator generator;
+
+    /**
+     * Fills the list, and generates the tasks that the add benchmark appends to an empty list.
+     */
+    @Setup
+    public void setUp() {
+        generator = new DatasetGenerator(DatasetGenerator.DEFAULT_SEED);
+        tasks = new TaskList(generator.tasks(size));
+        extra = generator.tasks(ADDS_PER_INVOCATION);
+    }
+
+    /**
+     * Adds tasks one by one to an empty list. The score is the time per add.
+     *
+     * @return The filled list.
+     * @throws ChironException Never, as the generated tasks are distinct.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ADDS_PER_INVOCATION)
+    public TaskList add() throws ChironException {
+        TaskList list = new TaskList();
+        for (Task task : extra) {
+            list.add(task);
+        }
+        return list;
+    }
+
+    /**
+     * Removes a task from a random position and adds it back at the end, keeping the size constant.
+     *
+     * @return The moved task.
+     * @throws ChironException Never, as the index is always in range.
+     */
+    @Benchmark
+    public Task removeAndAdd() throws ChironException {
+        Task task = tasks.remove(ThreadLocalRandom.current().nextInt(size));
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Searches for a substring, through the substring index.
+     *
+     * @return The matches.
+     */
+    @Benchmark
+    public List<Task> find() {
+        return tasks.find(generator.word());
+    }
+
+    /**
+     * Searches for a whole word, through the keyword index.
+     *
+     * @return The matches.
+     */
+    @Benchmark
+    public List<Task> findWord() {
+        return tasks.findWord(generator.word());
+    }
+
+    /**
+     * Looks up the deadlines and events of one week, through the time index.
+     *
+     * @return The matches.
+     */
+    @Benchmark
+    public List<Task> findBetween() {
+        return tasks.findBetween(WEEK_START, WEEK_START.plusDays(7));
+    }
+}
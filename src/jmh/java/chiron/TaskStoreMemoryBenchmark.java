@@ -0,0 +1,87 @@
+package chiron;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Heap taken per task by a {@link TaskStore} and by the list of task objects it replaces,
+ * at 1M and 10M tasks. Each run fills one container and reports the growth of the used
+ * heap, measured after a full collection, as the {@code bytesPerTask} counter; the time
+ * score only shows how long filling takes.
+ *
+ * <p>Run with {@code ./gradlew jmh -PjmhIncludes=TaskStoreMemoryBenchmark}. The forked JVM
+ * gets a 12 GiB heap, as 10M task objects need about 3 GiB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class TaskStoreMemoryBenchmark {
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    @Param({"COLUMNAR", "OBJECTS"})
+    private String layout;
+
+    /**
+     * The memory taken by the container built in the current iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerTask;
+    }
+
+    /**
+     * Fills a container with tasks from the {@link DatasetGenerator}.
+     *
+     * @param footprint Receives the heap growth per task.
+     * @return The container, so that it is not collected before it is measured.
+     */
+    @Benchmark
+    public Object fill(Footprint footprint) {
+        DatasetGenerator generator = new DatasetGenerator(DatasetGenerator.DEFAULT_SEED);
+        long before = usedHeap();
+        Object container;
+        if (layout.equals("COLUMNAR")) {
+            TaskStore store = new TaskStore();
+            for (int i = 0; i < size; i++) {
+                store.add(generator.task());
+            }
+            container = store;
+        } else {
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                tasks.add(generator.task());
+            }
+            container = tasks;
+        }
+        footprint.bytesPerTask = (usedHeap() - before) / size;
+        return container;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,195 @@
+package chiron;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a file line by line (or value by value) through a buffered channel and replaces the
+ * target only on commit. Depending on the durability level, the data goes to a sibling temporary
+ * file that is forced to disk and atomically renamed over the target, so a crash never leaves a
+ * half-written file.
+ */
+class AtomicFileWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path target;
+    private final Path out;
+    private final Storage.Durability durability;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long bytesWritten;
+    private boolean isCommitted;
+
+    /**
+     * Opens a writer that will replace the given file.
+     *
+     * @param target     The file to replace.
+     * @param durability How much the write is protected against crashes.
+     * @throws IOException If the file cannot be opened.
+     */
+    AtomicFileWriter(Path target, Storage.Durability durability) throws IOException {
+        this.target = target;
+        this.durability = durability;
+        this.out = durability == Storage.Durability.NONE
+                ? target
+                : target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        this.channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Writes one line, followed by a newline, as UTF-8.
+     *
+     * @param line The line to write.
+     * @throws IOException If writing fails.
+     */
+    void writeLine(String line) throws IOException {
+        write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes raw bytes.
+     *
+     * @param bytes The bytes to write.
+     * @throws IOException If writing fails.
+     */
+    void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            drain();
+        }
+        if (bytes.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+        bytesWritten += bytes.length;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value The byte to write.
+     * @throws IOException If writing fails.
+     */
+    void writeByte(int value) throws IOException {
+        reserve(Byte.BYTES).put((byte) value);
+    }
+
+    /**
+     * Writes a big-endian long.
+     *
+     * @param value The long to write.
+     * @throws IOException If writing fails.
+     */
+    void writeLong(long value) throws IOException {
+        reserve(Long.BYTES).putLong(value);
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return The number of bytes written.
+     */
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Flushes the remaining lines and moves the file into place.
+     *
+     * @throws IOException If the file cannot be written or moved.
+     */
+    void commit() throws IOException {
+        drain();
+        if (durability == Storage.Durability.FSYNC) {
+            channel.force(true);
+        }
+        channel.close();
+        if (out != target) {
+            Files.move(out, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (durability == Storage.Durability.FSYNC) {
+            forceDirectory(target.toAbsolutePath().getParent());
+        }
+        isCommitted = true;
+    }
+
+    /**
+     * Closes the writer. If it was not committed, the temporary file is discarded.
+     *
+     * @throws IOException If the temporary file cannot be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (isCommitted) {
+            return;
+        }
+        channel.close();
+        if (out != target) {
+            Files.deleteIfExists(out);
+        }
+    }
+
+    /**
+     * Appends bytes to the end of a file, creating it if needed.
+     *
+     * @param file       The file to append to.
+     * @param bytes      The bytes to append.
+     * @param durability Whether to force the bytes to disk before returning.
+     * @throws IOException If the bytes cannot be written.
+     */
+    static void append(Path file, byte[] bytes, Storage.Durability durability) throws IOException {
+        try (FileChannel append = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer src = ByteBuffer.wrap(bytes);
+            while (src.hasRemaining()) {
+                append.write(src);
+            }
+            if (durability == Storage.Durability.FSYNC) {
+                append.force(false);
+            }
+        }
+    }
+
+    private ByteBuffer reserve(int bytes) throws IOException {
+        if (bytes > buffer.remaining()) {
+            drain();
+        }
+        bytesWritten += bytes;
+        return buffer;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    /**
+     * Forces a directory entry change (the rename) to disk.
+     * Not every platform allows opening a directory, in which case this is a no-op.
+     *
+     * @param dir The directory to force.
+     */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel dirChannel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            dirChannel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on some platforms (e.g. Windows); the rename is still atomic.
+        }
+    }
+}
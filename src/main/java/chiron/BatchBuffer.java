@@ -0,0 +1,39 @@
+package chiron;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects a {@code batch} ... {@code end} block typed one line at a time.
+ * Each front end (console, chat window, network connection) offers every input line to its own buffer.
+ */
+class BatchBuffer {
+    private List<String> lines;
+
+    /**
+     * Offers a line of input.
+     * A finished block is returned as its lines joined by newlines, with a newline at the end,
+     * so that {@link Parser#parse} always runs it as a batch, even when it is empty.
+     *
+     * @param input The line typed by the user.
+     * @return The input to run now, or null while a block is being collected.
+     */
+    String offer(String input) {
+        String command = input.trim();
+        if (lines == null) {
+            if (command.equalsIgnoreCase(BatchCommand.START)) {
+                lines = new ArrayList<>();
+                return null;
+            }
+            return input;
+        }
+
+        if (command.equalsIgnoreCase(BatchCommand.END)) {
+            String block = String.join("\n", lines) + "\n";
+            lines = null;
+            return block;
+        }
+        lines.add(input);
+        return null;
+    }
+}
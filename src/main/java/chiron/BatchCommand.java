@@ -0,0 +1,61 @@
+package chiron;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a batch of commands, one per line, run in order with a single save at the end.
+ * A failing command is reported with its line number and does not stop the rest.
+ * Only errors are reported, so that thousands of commands give a short reply.
+ */
+public class BatchCommand extends Command {
+    static final String START = "batch";
+    static final String END = "end";
+
+    private final List<String> lines;
+
+    /**
+     * Constructs a BatchCommand.
+     *
+     * @param lines The command lines; blank lines are skipped.
+     */
+    public BatchCommand(List<String> lines) {
+        this.lines = List.copyOf(lines);
+    }
+
+    /**
+     * Executes the batch.
+     * Runs each command, holding back storage writes until all of them have run.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler.
+     * @return A summary of the batch, with one line per failed command.
+     * @throws ChironException If the final save fails.
+     */
+    @Override
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+        int count = 0;
+        List<String> errors = new ArrayList<>();
+        storage.beginBatch();
+        try {
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                count++;
+                try {
+                    if (Parser.parse(line).execute(tasks, ui, storage).isExit()) {
+                        errors.add("Line " + (i + 1) + ": Leaving mid-batch? Finish what you started.");
+                    }
+                } catch (ChironException e) {
+                    errors.add("Line " + (i + 1) + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            storage.endBatch(tasks);
+        }
+        return ui.showBatchResult(count, errors);
+    }
+}
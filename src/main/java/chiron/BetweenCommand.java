@@ -0,0 +1,56 @@
+package chiron;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a command to show the deadlines and events within a range of dates.
+ * A date without a time covers the whole day.
+ */
+public class BetweenCommand extends Command {
+    private static final Pattern RANGE = Pattern.compile(
+            "(\\d{4}-\\d{2}-\\d{2}(?: \\d{4})?)\\s+(\\d{4}-\\d{2}-\\d{2}(?: \\d{4})?)");
+
+    private final String args;
+
+    /**
+     * Constructs a BetweenCommand.
+     *
+     * @param args The start and end of the range, each as yyyy-mm-dd with an optional HHmm.
+     */
+    public BetweenCommand(String args) {
+        this.args = args.trim();
+    }
+
+    /**
+     * Executes the between command.
+     * Looks up the deadlines due and the events starting or ending within the range.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler.
+     * @return The reply to show.
+     * @throws ChironException If the range is missing or invalid.
+     */
+    @Override
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+        Matcher matcher = RANGE.matcher(args);
+        if (!matcher.matches()) {
+            throw new ChironException("Between when? Try: between <yyyy-mm-dd> [HHmm] <yyyy-mm-dd> [HHmm]");
+        }
+
+        Parser.ParsedDateTime from = Parser.parseDateTime(matcher.group(1));
+        Parser.ParsedDateTime to = Parser.parseDateTime(matcher.group(2));
+        if (from == null || to == null) {
+            throw new ChironException("I can only read dates as yyyy-mm-dd (optional time: HHmm).");
+        }
+
+        LocalDateTime end = to.hasTime() ? to.value() : to.value().toLocalDate().atTime(LocalTime.MAX);
+        if (from.value().isAfter(end)) {
+            throw new ChironException("That range ends before it starts.");
+        }
+        return ui.showAgenda(tasks.findBetween(from.value(), end));
+    }
+}
@@ -0,0 +1,191 @@
+package chiron;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the compact binary storage format.
+ *
+ * <p>The file starts with a header: the magic bytes {@code \0CHR}, a version byte and the
+ * journal sequence number as a long. Each task follows as a type byte, a flags byte
+ * (done, and whether each date has a time), a UTF-8 description prefixed with its length
+ * as an unsigned varint and,
+ * for deadlines and events, one or two dates as epoch-minute longs.
+ */
+class BinaryTaskFormat {
+    static final byte VERSION = 1;
+
+    private static final byte[] MAGIC = {0, 'C', 'H', 'R'};
+
+    private static final byte TYPE_TODO = 'T';
+    private static final byte TYPE_DEADLINE = 'D';
+    private static final byte TYPE_EVENT = 'E';
+
+    private static final int FLAG_DONE = 1;
+    private static final int FLAG_FIRST_HAS_TIME = 1 << 1;
+    private static final int FLAG_SECOND_HAS_TIME = 1 << 2;
+
+    /**
+     * The tasks read from a binary file.
+     *
+     * @param tasks    The tasks, in file order.
+     * @param sequence The journal sequence number stored in the header.
+     */
+    record Contents(List<Task> tasks, long sequence) {
+    }
+
+    /**
+     * Returns whether a file starts with the binary format's magic bytes.
+     *
+     * @param file The file to check.
+     * @return True if the file is in the binary format.
+     * @throws IOException If the file cannot be read.
+     */
+    static boolean isBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until the magic bytes are in or the file ends
+            }
+            return !magic.hasRemaining() && magic.flip().equals(ByteBuffer.wrap(MAGIC));
+        }
+    }
+
+    /**
+     * Writes the header of a binary file.
+     *
+     * @param out      The writer to write to.
+     * @param sequence The journal sequence number the file contains.
+     * @throws IOException If writing fails.
+     */
+    static void writeHeader(AtomicFileWriter out, long sequence) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(sequence);
+    }
+
+    /**
+     * Writes one task.
+     *
+     * @param out  The writer to write to.
+     * @param task The task to write.
+     * @throws IOException If writing fails.
+     */
+    static void writeTask(AtomicFileWriter out, Task task) throws IOException {
+        int flags = task.isDone() ? FLAG_DONE : 0;
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+
+        if (task instanceof Deadline d) {
+            flags |= PackedTime.hasTime(d.packedBy()) ? FLAG_FIRST_HAS_TIME : 0;
+            writePrefix(out, TYPE_DEADLINE, flags, description);
+            out.writeLong(PackedTime.epochMinutes(d.packedBy()));
+        } else if (task instanceof Event e) {
+            flags |= PackedTime.hasTime(e.packedFrom()) ? FLAG_FIRST_HAS_TIME : 0;
+            flags |= PackedTime.hasTime(e.packedTo()) ? FLAG_SECOND_HAS_TIME : 0;
+            writePrefix(out, TYPE_EVENT, flags, description);
+            out.writeLong(PackedTime.epochMinutes(e.packedFrom()));
+            out.writeLong(PackedTime.epochMinutes(e.packedTo()));
+        } else {
+            writePrefix(out, TYPE_TODO, flags, description);
+        }
+    }
+
+    private static void writePrefix(AtomicFileWriter out, byte type, int flags, byte[] description)
+            throws IOException {
+        out.writeByte(type);
+        out.writeByte(flags);
+        writeVarInt(out, description.length);
+        out.write(description);
+    }
+
+    /**
+     * Writes a non-negative int in 7-bit groups, so short descriptions need a single length byte.
+     */
+    private static void writeVarInt(AtomicFileWriter out, int value) throws IOException {
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            out.writeByte((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        out.writeByte(rest);
+    }
+
+    private static int readVarInt(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0 && value >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed length in storage file");
+    }
+
+    /**
+     * Reads every task in a binary file.
+     * The file is read into the heap rather than mapped: a mapping lives until it is garbage
+     * collected, and on Windows it keeps the next save from replacing the file.
+     *
+     * @param file The file to read.
+     * @return The tasks and sequence number in the file.
+     * @throws IOException If the file cannot be read or is not a valid binary file.
+     */
+    static Contents read(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+
+        try {
+            in.position(MAGIC.length);
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported storage format version " + version);
+            }
+            long sequence = in.getLong();
+
+            List<Task> tasks = new ArrayList<>();
+            while (in.hasRemaining()) {
+                tasks.add(readTask(in));
+            }
+            return new Contents(tasks, sequence);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupted storage file", e);
+        }
+    }
+
+    private static Task readTask(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        int flags = in.get();
+        byte[] bytes = new byte[readVarInt(in)];
+        in.get(bytes);
+        String description = new String(bytes, StandardCharsets.UTF_8);
+
+        Task t;
+        switch (type) {
+            case TYPE_TODO:
+                t = new Todo(description);
+                break;
+            case TYPE_DEADLINE:
+                t = new Deadline(description,
+                        PackedTime.ofEpochMinutes(in.getLong(), (flags & FLAG_FIRST_HAS_TIME) != 0));
+                break;
+            case TYPE_EVENT:
+                long from = PackedTime.ofEpochMinutes(in.getLong(), (flags & FLAG_FIRST_HAS_TIME) != 0);
+                long to = PackedTime.ofEpochMinutes(in.getLong(), (flags & FLAG_SECOND_HAS_TIME) != 0);
+                t = new Event(description, from, to);
+                break;
+            default:
+                throw new IOException("Unknown task type " + type);
+        }
+
+        t.setDone((flags & FLAG_DONE) != 0);
+        return t;
+    }
+}
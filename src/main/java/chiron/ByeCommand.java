@@ -6,16 +6,18 @@ package chiron;
 public class ByeCommand extends Command {
     /**
      * Executes the bye command.
-     * Displays the exit message and triggers application termination.
+     * Writes any changes still queued for storage, displays the exit message and triggers application
+     * termination.
      *
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return True (exit application).
+     * @return The farewell, which exits the application.
+     * @throws ChironException If the queued changes cannot be saved.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) {
-        ui.showBye();
-        return true;
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+        storage.flush();
+        return ui.showBye();
     }
 }
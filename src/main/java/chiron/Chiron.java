@@ -1,6 +1,7 @@
 package chiron;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -11,10 +12,23 @@ public class Chiron {
 
     private static final String DATA_DIR = "data";
     private static final String DATA_FILE = "chiron.txt";
+    private static final String JOURNAL_PROPERTY = "chiron.journal";
+    private static final String COMPACTION_RATIO_PROPERTY = "chiron.compactionRatio";
+    private static final String DURABILITY_PROPERTY = "chiron.durability";
+    private static final String FORMAT_PROPERTY = "chiron.format";
+    private static final String LOAD_STRATEGY_PROPERTY = "chiron.loadStrategy";
+    private static final String PARALLEL_LOAD_THRESHOLD_PROPERTY = "chiron.parallelLoadThreshold";
+    private static final String FIND_INDEX_LIMIT_PROPERTY = "chiron.findIndexLimit";
+    private static final String BATCH_SAVE_INTERVAL_PROPERTY = "chiron.batchSaveInterval";
+    private static final String WRITE_BEHIND_MILLIS_PROPERTY = "chiron.writeBehindMillis";
+    private static final String WRITE_BEHIND_LIMIT_PROPERTY = "chiron.writeBehindLimit";
+    private static final String METRICS_PROPERTY = "chiron.metrics";
+    private static final String COMPACT_TASKS_PROPERTY = "chiron.compactTasks";
 
     private final Ui ui;
     private final Storage storage;
     private final TaskList tasks;
+    private final Response loadError;
 
     /**
      * Constructs a new Chiron instance.
@@ -22,18 +36,23 @@ public class Chiron {
      */
     public Chiron() {
         this.ui = new Ui();
+        configureMetrics();
         this.storage = new Storage(DATA_DIR + java.io.File.separator + DATA_FILE);
+        configure(storage);
 
         ArrayList<Task> loadedTasks;
+        Response error = null;
         try {
             // storage.load() returns List<Task>, so convert to ArrayList<Task>
             loadedTasks = new ArrayList<>(storage.load());
         } catch (ChironException e) {
-            ui.showError(e.getMessage());
+            error = ui.showError(e.getMessage());
             loadedTasks = new ArrayList<>();
         }
+        this.loadError = error;
 
-        this.tasks = new TaskList(loadedTasks);
+        this.tasks = createTaskList(loadedTasks);
+        configure(tasks);
 
         // A-Assertions: internal invariants (developer-only)
         assert ui != null : "ui should not be null";
@@ -41,6 +60,80 @@ public class Chiron {
         assert tasks != null : "tasks should not be null";
     }
 
+    /**
+     * Applies the storage settings given as system properties, e.g. {@code -Dchiron.format=binary}.
+     *
+     * @param storage The storage handler to configure.
+     */
+    static void configure(Storage storage) {
+        storage.setJournaling(Boolean.parseBoolean(System.getProperty(JOURNAL_PROPERTY, "true")));
+        String compactionRatio = System.getProperty(COMPACTION_RATIO_PROPERTY);
+        if (compactionRatio != null) {
+            storage.setCompactionRatio(Double.parseDouble(compactionRatio));
+        }
+        String durability = System.getProperty(DURABILITY_PROPERTY);
+        if (durability != null) {
+            storage.setDurability(Storage.Durability.valueOf(durability.toUpperCase()));
+        }
+        String format = System.getProperty(FORMAT_PROPERTY);
+        if (format != null) {
+            storage.setFormat(Storage.Format.valueOf(format.toUpperCase()));
+        }
+        String loadStrategy = System.getProperty(LOAD_STRATEGY_PROPERTY);
+        if (loadStrategy != null) {
+            storage.setLoadStrategy(Storage.LoadStrategy.valueOf(loadStrategy.toUpperCase()));
+        }
+        Long parallelLoadThreshold = Long.getLong(PARALLEL_LOAD_THRESHOLD_PROPERTY);
+        if (parallelLoadThreshold != null) {
+            storage.setParallelLoadThreshold(parallelLoadThreshold);
+        }
+        Integer batchSaveInterval = Integer.getInteger(BATCH_SAVE_INTERVAL_PROPERTY);
+        if (batchSaveInterval != null) {
+            storage.setBatchSaveInterval(batchSaveInterval);
+        }
+        Long writeBehindMillis = Long.getLong(WRITE_BEHIND_MILLIS_PROPERTY);
+        if (writeBehindMillis != null) {
+            storage.setWriteBehind(writeBehindMillis, Integer.getInteger(WRITE_BEHIND_LIMIT_PROPERTY, 0));
+        }
+    }
+
+    /**
+     * Turns metrics on or off as given by the {@code chiron.metrics} system property, on by default,
+     * and makes them visible over JMX if on.
+     */
+    static void configureMetrics() {
+        Metrics metrics = Metrics.global();
+        metrics.setEnabled(Boolean.parseBoolean(System.getProperty(METRICS_PROPERTY, "true")));
+        if (metrics.isEnabled()) {
+            metrics.registerMBean();
+        }
+    }
+
+    /**
+     * Creates the list for the loaded tasks: a {@link TaskList#compact compact} one if the
+     * {@code chiron.compactTasks} system property is true, or an indexed one by default.
+     *
+     * @param loaded The loaded tasks.
+     * @return The task list.
+     */
+    static TaskList createTaskList(List<Task> loaded) {
+        return Boolean.getBoolean(COMPACT_TASKS_PROPERTY) ? TaskList.compact(loaded) : new TaskList(loaded);
+    }
+
+    /**
+     * Applies the task list settings given as system properties, and has the metrics report
+     * the size of its find index.
+     *
+     * @param tasks The task list to configure.
+     */
+    static void configure(TaskList tasks) {
+        Metrics.global().watch(tasks);
+        Long findIndexLimit = Long.getLong(FIND_INDEX_LIMIT_PROPERTY);
+        if (findIndexLimit != null) {
+            tasks.setSubstringIndexLimit(findIndexLimit);
+        }
+    }
+
     /**
      * The entry point of the application.
      *
@@ -56,25 +149,25 @@ public class Chiron {
      * the exit command is given.
      */
     public void run() {
-        ui.showGreeting();
+        TextRenderer renderer = new TextRenderer(true);
+        if (loadError != null) {
+            System.out.print(renderer.render(loadError));
+        }
+        System.out.print(renderer.render(ui.showGreeting()));
 
         boolean isExit = false;
         Scanner scanner = new Scanner(System.in);
+        BatchBuffer batch = new BatchBuffer();
 
         while (!isExit) {
-            String input = scanner.nextLine();
-            assert input != null : "scanner returned null input line";
-
-            try {
-                Command command = Parser.parse(input);
-                assert command != null : "Parser.parse returned null command";
-
-                // Your project likely uses execute() returning boolean for exit
-                isExit = command.execute(tasks, ui, storage);
-
-            } catch (ChironException e) {
-                ui.showError(e.getMessage());
+            String input = batch.offer(scanner.nextLine());
+            if (input == null) {
+                continue;
             }
+
+            Response response = respond(input);
+            System.out.print(renderer.render(response));
+            isExit = response.isExit();
         }
 
         scanner.close();
@@ -82,15 +175,53 @@ public class Chiron {
 
     /**
      * Generates a response for the user's chat message.
+     * Nothing is printed and no state is kept between calls, so responses may be requested
+     * from several threads at once.
+     *
+     * @param input The user's message.
+     * @return Chiron's reply.
      */
-    public String getResponse(String input) {
+    public Response respond(String input) {
+        return execute(input, tasks, ui, storage);
+    }
+
+    /**
+     * Parses and runs one command, timing both steps in the global {@link Metrics}. The reply
+     * names the command, so that rendering it is timed under the command as well.
+     *
+     * @param input   The command line.
+     * @param tasks   The list of tasks.
+     * @param ui      The Ui that words the reply.
+     * @param storage The storage handler.
+     * @return The reply, which is an error message if the command failed.
+     */
+    static Response execute(String input, TaskList tasks, Ui ui, Storage storage) {
+        Metrics metrics = Metrics.global();
+        long start = metrics.startCommand();
+        Command command = null;
+        Response response;
         try {
-            Command command = Parser.parse(input);
-            command.execute(tasks, ui, storage);
-            return ui.getResponse();
+            command = Parser.parse(input);
+            assert command != null : "Parser.parse returned null command";
+            start = metrics.recordParse(command, start);
+            response = command.execute(tasks, ui, storage);
         } catch (ChironException e) {
-            ui.showError(e.getMessage());
-            return ui.getResponse();
+            metrics.recordError();
+            response = ui.showError(e.getMessage());
+        } finally {
+            if (command != null) {
+                metrics.recordExecute(command, start);
+            }
         }
+        return command == null ? response : response.answering(command);
+    }
+
+    /**
+     * Returns the error met while loading the saved tasks, if any.
+     *
+     * @return The error to show the user, or null if the tasks loaded fine.
+     */
+    public Response getLoadError() {
+        return loadError;
     }
 }
@@ -0,0 +1,326 @@
+package chiron;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Serves Chiron to many users over TCP, running the same Parser and Commands as the CLI.
+ *
+ * <p>The protocol is line-based UTF-8. A client first sends {@code user <name>}, then one
+ * command per line. Each reply is the text the CLI would print, followed by a line holding
+ * only a dot; reply lines that start with a dot get a second one, as in SMTP. The lines of a
+ * {@code batch} ... {@code end} block get a single reply after {@code end}. {@code bye}
+ * ends the connection.
+ *
+ * <p>Each user has their own TaskList and Storage, in {@code <dataDir>/<name>.txt}, shared by
+ * all of their connections. Commands of one user run one at a time, so that their journal
+ * records stay in order; commands of different users run in parallel. Each connection has
+ * its own thread with a small stack, so thousands of clients can be connected at once.
+ * A user's list is loaded by their first connection and, once their last connection ends,
+ * written out and dropped from memory, so the server only holds the users that are connected.
+ *
+ * <p>A user can only import files from {@code <dataDir>/imports/<name>}, so that nobody can read
+ * the task files of other users or anything else on the server. The stats command is refused, as
+ * its figures cover every user; whoever runs the server reads them over JMX instead.
+ */
+public class ChironServer implements Closeable {
+    static final String END_OF_REPLY = ".";
+
+    private static final int DEFAULT_PORT = 4000;
+    private static final int BACKLOG = 1024;
+    private static final long STACK_SIZE = 256 * 1024;
+    private static final String LOGIN = "user";
+    private static final String IMPORT_DIR = "imports";
+    private static final Pattern USER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private final Ui ui = new Ui();
+    private final TextRenderer renderer = new TextRenderer(true);
+    private final ServerSocket serverSocket;
+    private final Path dataDir;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final Object logouts = new Object();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(null, runnable, "chiron-connection-" + connectionCount.incrementAndGet(),
+                STACK_SIZE);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The tasks and storage of one user, loaded on their first command.
+     * The count of their open connections only changes while the account's map entry is locked.
+     */
+    private static class Account {
+        private final String name;
+        private final Storage storage;
+        private TaskList tasks;
+        private int connections;
+
+        Account(String name, Storage storage) {
+            this.name = name;
+            this.storage = storage;
+        }
+
+        /**
+         * Runs one command for this user. Commands of the same user never overlap.
+         *
+         * @param input The command line.
+         * @param ui    The Ui that words the reply.
+         * @return The reply.
+         */
+        synchronized Response execute(String input, Ui ui) {
+            try {
+                if (tasks == null) {
+                    // A file that cannot be read is not replaced by an empty list; it is retried next time
+                    tasks = Chiron.createTaskList(storage.load());
+                    Chiron.configure(tasks);
+                }
+            } catch (ChironException e) {
+                return ui.showError(e.getMessage());
+            }
+            return Chiron.execute(input, tasks, ui, storage);
+        }
+
+        /**
+         * Writes out whatever this user's storage still holds, once any running command has finished.
+         */
+        synchronized void close() {
+            try {
+                storage.close();
+            } catch (ChironException e) {
+                // The shutdown hook of Storage retries the write
+                System.err.println("Tasks of " + name + " not saved yet: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens a server on the given port. It accepts clients once started.
+     *
+     * @param port    The port to listen on, or 0 for any free port.
+     * @param dataDir The directory holding one task file per user.
+     * @throws IOException If the port cannot be opened.
+     */
+    public ChironServer(int port, Path dataDir) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG);
+        this.dataDir = dataDir;
+    }
+
+    /**
+     * Starts the server with the data of each user in {@code data/users}.
+     *
+     * @param args The port to listen on (optional, 4000 by default).
+     * @throws IOException If the port cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Chiron.configureMetrics();
+        ChironServer server = new ChironServer(port, Path.of("data", "users"));
+        server.start();
+        System.out.println("Chiron is listening on port " + server.getPort() + ".");
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting clients on a separate thread.
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::acceptClients, "chiron-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * Stops accepting clients, disconnects the connected ones and writes out the lists of their users.
+     *
+     * @throws IOException If the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+        connections.shutdown();
+        for (String name : accounts.keySet()) {
+            accounts.computeIfPresent(name, (n, account) -> {
+                account.close();
+                return null;
+            });
+        }
+        synchronized (logouts) {
+            logouts.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the number of users whose lists are held in memory.
+     *
+     * @return The number of loaded accounts.
+     */
+    int getAccountCount() {
+        return accounts.size();
+    }
+
+    /**
+     * Waits until no more than the given number of users are held in memory, e.g. until the
+     * connections a client closed have been logged out.
+     *
+     * @param count The number of accounts to wait for.
+     */
+    void awaitAccountCount(int count) {
+        synchronized (logouts) {
+            try {
+                while (accounts.size() > count) {
+                    logouts.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void acceptClients() {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serve(socket));
+            }
+        } catch (SocketException e) {
+            // The server socket was closed
+        } catch (IOException e) {
+            System.err.println("Chiron server stopped: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Talks to one client until it says bye or disconnects.
+     *
+     * @param socket The client's socket.
+     */
+    private void serve(Socket socket) {
+        clients.add(socket);
+        Account account = null;
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                BufferedWriter out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            account = login(in, out);
+            if (account == null) {
+                return;
+            }
+            reply(out, ui.showGreeting());
+
+            BatchBuffer batch = new BatchBuffer();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String input = batch.offer(line);
+                if (input == null) {
+                    continue;
+                }
+                Response response = account.execute(input, ui);
+                reply(out, response);
+                if (response.isExit()) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; there is nobody left to tell
+        } finally {
+            clients.remove(socket);
+            if (account != null) {
+                logout(account);
+            }
+        }
+    }
+
+    /**
+     * Reads lines until the client names a valid user, and counts the connection against their account.
+     *
+     * @return The user's account, or null if the client disconnected first.
+     */
+    private Account login(BufferedReader in, BufferedWriter out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] parts = line.trim().split("\\s+", 2);
+            if (parts.length == 2 && parts[0].equalsIgnoreCase(LOGIN) && USER_NAME.matcher(parts[1]).matches()) {
+                // Names are case-insensitive, like the file systems some users are stored on
+                String name = parts[1].toLowerCase(Locale.ROOT);
+                return accounts.compute(name, (n, account) -> {
+                    if (account == null) {
+                        Storage storage = new Storage(dataDir.resolve(n + ".txt").toString());
+                        Chiron.configure(storage);
+                        storage.setImportDirectory(dataDir.resolve(IMPORT_DIR).resolve(n));
+                        storage.setStatsShown(false);
+                        account = new Account(n, storage);
+                    }
+                    account.connections++;
+                    return account;
+                });
+            }
+            reply(out, ui.showError("Tell me who you are first: user <name>, with letters, digits, _ or -."));
+        }
+        return null;
+    }
+
+    /**
+     * Ends one connection of a user, closing and dropping their account if it was the last.
+     * The account is closed while its map entry is locked, so that a new login of the same user
+     * waits for the files to be complete before loading them again.
+     *
+     * @param account The user's account.
+     */
+    private void logout(Account account) {
+        accounts.computeIfPresent(account.name, (name, current) -> {
+            if (current != account || --current.connections > 0) {
+                return current;
+            }
+            account.close();
+            return null;
+        });
+        synchronized (logouts) {
+            logouts.notifyAll();
+        }
+    }
+
+    private void reply(BufferedWriter out, Response response) throws IOException {
+        String text = renderer.render(response);
+        for (String line : text.substring(0, text.length() - 1).split("\n", -1)) {
+            if (line.startsWith(END_OF_REPLY)) {
+                out.write(END_OF_REPLY);
+            }
+            out.write(line);
+            out.write('\n');
+        }
+        out.write(END_OF_REPLY);
+        out.write('\n');
+        out.flush();
+    }
+}
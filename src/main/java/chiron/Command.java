@@ -11,8 +11,8 @@ public abstract class Command {
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return true if the application should exit, false otherwise.
+     * @return Chiron's reply, which also tells whether the application should exit.
      * @throws ChironException If an error occurs during execution.
      */
-    public abstract boolean execute(TaskList tasks, Ui ui, Storage storage) throws ChironException;
+    public abstract Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException;
 }
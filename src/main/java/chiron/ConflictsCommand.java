@@ -0,0 +1,20 @@
+package chiron;
+
+/**
+ * Represents a command to list the events whose times overlap.
+ */
+public class ConflictsCommand extends Command {
+    /**
+     * Executes the conflicts command.
+     * Finds the overlapping pairs of events through the interval tree and displays as many as fit.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler.
+     * @return The reply to show.
+     */
+    @Override
+    public Response execute(TaskList tasks, Ui ui, Storage storage) {
+        return ui.showConflicts(tasks.findConflicts(Ui.MAX_CONFLICTS_SHOWN));
+    }
+}
@@ -0,0 +1,94 @@
+package chiron;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+/**
+ * The chat history, shown as a virtualized list.
+ * Only the messages in view have a dialog box, and the boxes are reused as the user scrolls,
+ * so the number of nodes stays the same however long the conversation gets.
+ */
+public class ConversationView extends ListView<ConversationView.Message> {
+    private Image userImage;
+    private Image chironImage;
+
+    /**
+     * One message in the conversation.
+     *
+     * @param text       The text of the message.
+     * @param isFromUser True if the user sent the message, false if Chiron did.
+     */
+    public record Message(String text, boolean isFromUser) {
+    }
+
+    /**
+     * Constructs an empty conversation view.
+     */
+    public ConversationView() {
+        getStyleClass().add("conversation-view");
+        setFocusTraversable(false);
+        setCellFactory(view -> new MessageCell());
+    }
+
+    /**
+     * Sets the pictures shown next to the messages.
+     *
+     * @param userImage   The picture of the user.
+     * @param chironImage The picture of Chiron.
+     */
+    public void setImages(Image userImage, Image chironImage) {
+        this.userImage = userImage;
+        this.chironImage = chironImage;
+    }
+
+    /**
+     * Appends a message and scrolls to it.
+     *
+     * @param text       The text of the message.
+     * @param isFromUser True if the user sent the message, false if Chiron did.
+     */
+    public void addMessage(String text, boolean isFromUser) {
+        getItems().add(new Message(text, isFromUser));
+        scrollTo(getItems().size() - 1);
+    }
+
+    /**
+     * A cell that shows a message in a dialog box, keeping one box per speaker for reuse.
+     */
+    private class MessageCell extends ListCell<Message> {
+        private DialogBox userDialog;
+        private DialogBox chironDialog;
+
+        MessageCell() {
+            // A zero preferred width makes the cell follow the list's width, so long messages wrap
+            setPrefWidth(0);
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
+
+        @Override
+        protected void updateItem(Message message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
+            }
+
+            DialogBox dialog;
+            if (message.isFromUser()) {
+                if (userDialog == null) {
+                    userDialog = DialogBox.getUserDialog(message.text(), userImage);
+                }
+                dialog = userDialog;
+            } else {
+                if (chironDialog == null) {
+                    chironDialog = DialogBox.getChironDialog(message.text(), chironImage);
+                }
+                dialog = chironDialog;
+            }
+            dialog.setText(message.text());
+            setGraphic(dialog);
+        }
+    }
+}
@@ -5,10 +5,10 @@ import java.time.LocalDateTime;
 /**
  * Represents a Deadline task.
  * A Deadline task has a description and a by-date/time.
+ * The date is kept as a {@link PackedTime}, so comparing and formatting it creates no objects.
  */
 public class Deadline extends Task {
-    private final LocalDateTime by;
-    private final boolean byHasTime;
+    private final long by;
 
     /**
      * Constructs a Deadline task.
@@ -18,18 +18,27 @@ public class Deadline extends Task {
      * @param byHasTime   True if the deadline includes a time component.
      */
     public Deadline(String description, LocalDateTime by, boolean byHasTime) {
+        this(description, PackedTime.pack(by, byHasTime));
+    }
+
+    /**
+     * Constructs a Deadline task from a packed date.
+     *
+     * @param description The description of the task.
+     * @param by          The deadline, as a {@link PackedTime}.
+     */
+    Deadline(String description, long by) {
         super(description);
         this.by = by;
-        this.byHasTime = byHasTime;
     }
 
     /**
      * Returns the deadline date/time.
      *
-     * @return The deadline LocalDateTime.
+     * @return The deadline LocalDateTime, created on each call.
      */
     public LocalDateTime by() {
-        return by;
+        return PackedTime.toDateTime(by);
     }
 
     /**
@@ -38,7 +47,16 @@ public class Deadline extends Task {
      * @return True if time is specified, false otherwise.
      */
     public boolean byHasTime() {
-        return byHasTime;
+        return PackedTime.hasTime(by);
+    }
+
+    /**
+     * Returns the deadline as a packed date.
+     *
+     * @return The deadline, as a {@link PackedTime}.
+     */
+    long packedBy() {
+        return by;
     }
 
     @Override
@@ -46,14 +64,28 @@ public class Deadline extends Task {
         return "[D]";
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        Deadline d = (Deadline) other;
+        return by == d.by;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Long.hashCode(by);
+    }
+
     @Override
     public String toString() {
-        return super.toString() + " (by: " + Parser.formatDateTime(by, byHasTime) + ")";
+        return super.toString() + " (by: " + PackedTime.format(by) + ")";
     }
 
     @Override
     public String toSaveString() {
         return "D | " + doneFlag() + " | " + getDescription()
-                + " | " + Parser.storeDateTime(by, byHasTime);
+                + " | " + PackedTime.store(by);
     }
 }
@@ -23,11 +23,11 @@ public class DeadlineCommand extends Command {
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return False (continue running).
+     * @return The reply to show.
      * @throws ChironException If arguments are invalid or saving fails.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
         if (args.isEmpty()) {
             throw new ChironException("A deadline needs details.");
         }
@@ -54,9 +54,8 @@ public class DeadlineCommand extends Command {
 
         Task t = new Deadline(desc, parsed.value(), parsed.hasTime());
         tasks.add(t);
-        storage.save(tasks);
+        storage.recordAdd(tasks, t);
 
-        ui.showAdded(t, tasks.size(), "A deadline sharpens focus. Respect it.");
-        return false;
+        return ui.showAdded(t, tasks.size(), "A deadline sharpens focus. Respect it.");
     }
 }
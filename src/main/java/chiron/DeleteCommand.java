@@ -23,20 +23,15 @@ public class DeleteCommand extends Command {
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return False (continue running).
+     * @return The reply to show.
      * @throws ChironException If the index is invalid or saving fails.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
         int idx = Parser.parseIndex(arg);
-        if (idx < 1 || idx > tasks.size()) {
-            throw new ChironException("That task number doesn't exist.");
-        }
-
         Task removed = tasks.remove(idx - 1);
-        storage.save(tasks);
+        storage.recordRemove(tasks, idx - 1);
 
-        ui.showDeleted(removed, tasks.size());
-        return false;
+        return ui.showDeleted(removed, tasks.size());
     }
 }
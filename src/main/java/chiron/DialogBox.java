@@ -1,48 +1,58 @@
 package chiron;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 import javafx.scene.shape.Circle;
 
 /**
- * An example of a custom control using FXML.
- * This control represents a dialog box consisting of an ImageView to represent
- * the speaker's face and a label
- * containing text from the speaker.
+ * A custom control representing a dialog box, consisting of an ImageView to represent
+ * the speaker's face and a label containing text from the speaker.
+ * The box is built in code rather than loaded from FXML, as parsing FXML for every
+ * message was by far the slowest part of showing a reply.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final double SPACING = 15.0;
+    private static final double PADDING = 10.0;
+    private static final double PREF_WIDTH = 400.0;
+    private static final double PICTURE_SIZE = 60.0;
+
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
 
     private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        setAlignment(Pos.TOP_RIGHT);
+        setSpacing(SPACING);
+        setPadding(new Insets(PADDING));
+        setPrefWidth(PREF_WIDTH);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
 
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        dialog.setWrapText(true);
+        dialog.getStyleClass().add("dialog-label");
         dialog.setText(text);
+
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
         displayPicture.setImage(img);
+        displayPicture.setClip(new Circle(PICTURE_SIZE / 2, PICTURE_SIZE / 2, PICTURE_SIZE / 2));
+
+        getChildren().addAll(dialog, displayPicture);
+    }
 
-        Circle clip = new Circle(displayPicture.getFitWidth() / 2, displayPicture.getFitHeight() / 2,
-                displayPicture.getFitWidth() / 2);
-        displayPicture.setClip(clip);
+    /**
+     * Replaces the text of the dialog box, so that it can be reused for another message.
+     *
+     * @param text The new text.
+     */
+    void setText(String text) {
+        dialog.setText(text);
     }
 
     /**
@@ -50,9 +60,7 @@ public class DialogBox extends HBox {
      * right.
      */
     private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
+        getChildren().setAll(displayPicture, dialog);
         setAlignment(Pos.TOP_LEFT);
     }
 
@@ -0,0 +1,45 @@
+package chiron;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Represents a command to show the deadlines and events on a given day.
+ */
+public class DueCommand extends Command {
+    private final String args;
+
+    /**
+     * Constructs a DueCommand.
+     *
+     * @param args The day, as yyyy-mm-dd.
+     */
+    public DueCommand(String args) {
+        this.args = args.trim();
+    }
+
+    /**
+     * Executes the due command.
+     * Looks up the deadlines due and the events starting or ending on the day.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler.
+     * @return The reply to show.
+     * @throws ChironException If the day is missing or invalid.
+     */
+    @Override
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+        if (args.isEmpty()) {
+            throw new ChironException("Due when? Give me a day.");
+        }
+
+        Parser.ParsedDateTime day = Parser.parseDateTime(args);
+        if (day == null || day.hasTime()) {
+            throw new ChironException("I can only read days as yyyy-mm-dd.");
+        }
+
+        LocalDateTime start = day.value();
+        return ui.showAgenda(tasks.findBetween(start, start.toLocalDate().atTime(LocalTime.MAX)));
+    }
+}
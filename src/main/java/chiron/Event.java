@@ -5,12 +5,11 @@ import java.time.LocalDateTime;
 /**
  * Represents an Event task.
  * An Event task has a description, a start date/time, and an end date/time.
+ * The dates are kept as {@link PackedTime}s, so comparing and formatting them creates no objects.
  */
 public class Event extends Task {
-    private final LocalDateTime from;
-    private final boolean fromHasTime;
-    private final LocalDateTime to;
-    private final boolean toHasTime;
+    private final long from;
+    private final long to;
 
     /**
      * Constructs an Event task.
@@ -24,20 +23,29 @@ public class Event extends Task {
     public Event(String description,
             LocalDateTime from, boolean fromHasTime,
             LocalDateTime to, boolean toHasTime) {
+        this(description, PackedTime.pack(from, fromHasTime), PackedTime.pack(to, toHasTime));
+    }
+
+    /**
+     * Constructs an Event task from packed dates.
+     *
+     * @param description The description of the task.
+     * @param from        The start, as a {@link PackedTime}.
+     * @param to          The end, as a {@link PackedTime}.
+     */
+    Event(String description, long from, long to) {
         super(description);
         this.from = from;
-        this.fromHasTime = fromHasTime;
         this.to = to;
-        this.toHasTime = toHasTime;
     }
 
     /**
      * Returns the start date/time.
      *
-     * @return The start LocalDateTime.
+     * @return The start LocalDateTime, created on each call.
      */
     public LocalDateTime from() {
-        return from;
+        return PackedTime.toDateTime(from);
     }
 
     /**
@@ -46,16 +54,16 @@ public class Event extends Task {
      * @return True if start time is specified, false otherwise.
      */
     public boolean fromHasTime() {
-        return fromHasTime;
+        return PackedTime.hasTime(from);
     }
 
     /**
      * Returns the end date/time.
      *
-     * @return The end LocalDateTime.
+     * @return The end LocalDateTime, created on each call.
      */
     public LocalDateTime to() {
-        return to;
+        return PackedTime.toDateTime(to);
     }
 
     /**
@@ -64,7 +72,25 @@ public class Event extends Task {
      * @return True if end time is specified, false otherwise.
      */
     public boolean toHasTime() {
-        return toHasTime;
+        return PackedTime.hasTime(to);
+    }
+
+    /**
+     * Returns the start as a packed date.
+     *
+     * @return The start, as a {@link PackedTime}.
+     */
+    long packedFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the end as a packed date.
+     *
+     * @return The end, as a {@link PackedTime}.
+     */
+    long packedTo() {
+        return to;
     }
 
     @Override
@@ -72,17 +98,31 @@ public class Event extends Task {
         return "[E]";
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        Event e = (Event) other;
+        return from == e.from && to == e.to;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + Long.hashCode(from)) + Long.hashCode(to);
+    }
+
     @Override
     public String toString() {
         return super.toString()
-                + " (from: " + Parser.formatDateTime(from, fromHasTime)
-                + " to: " + Parser.formatDateTime(to, toHasTime) + ")";
+                + " (from: " + PackedTime.format(from)
+                + " to: " + PackedTime.format(to) + ")";
     }
 
     @Override
     public String toSaveString() {
         return "E | " + doneFlag() + " | " + getDescription()
-                + " | " + Parser.storeDateTime(from, fromHasTime)
-                + " | " + Parser.storeDateTime(to, toHasTime);
+                + " | " + PackedTime.store(from)
+                + " | " + PackedTime.store(to);
     }
 }
@@ -1,5 +1,7 @@
 package chiron;
 
+import java.util.List;
+
 /**
  * Represents a command to add an Event task.
  */
@@ -23,11 +25,11 @@ public class EventCommand extends Command {
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return False (continue running).
+     * @return The reply to show.
      * @throws ChironException If arguments are invalid or saving fails.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
         if (args.isEmpty()) {
             throw new ChironException("An event needs details.");
         }
@@ -62,11 +64,12 @@ public class EventCommand extends Command {
             throw new ChironException("An event must end after it begins. Time moves forward.");
         }
 
-        Task t = new Event(desc, from.value(), from.hasTime(), to.value(), to.hasTime());
+        Event t = new Event(desc, from.value(), from.hasTime(), to.value(), to.hasTime());
         tasks.add(t);
-        storage.save(tasks);
+        storage.recordAdd(tasks, t);
 
-        ui.showAdded(t, tasks.size(), "Logged. Be present when the time comes.");
-        return false;
+        Response added = ui.showAdded(t, tasks.size(), "Logged. Be present when the time comes.");
+        List<Event> overlapping = tasks.findOverlapping(t);
+        return overlapping.isEmpty() ? added : ui.showOverlapWarning(added, overlapping);
     }
 }
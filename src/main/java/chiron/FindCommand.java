@@ -4,36 +4,57 @@ import java.util.List;
 
 /**
  * Represents a command to find tasks by keyword.
+ * Matches any substring by default; {@code /word} matches whole words and
+ * {@code /prefix} matches the start of words, both through the keyword index.
  */
 public class FindCommand extends Command {
+    private static final String WORD_FLAG = "/word";
+    private static final String PREFIX_FLAG = "/prefix";
+
     private final String keyword;
+    private final String mode;
 
     /**
      * Constructs a FindCommand.
      *
-     * @param keyword The keyword to search for.
+     * @param args The keyword to search for, optionally preceded by /word or /prefix.
      */
-    public FindCommand(String keyword) {
-        this.keyword = keyword.trim();
+    public FindCommand(String args) {
+        String trimmed = args.trim();
+        String[] parts = trimmed.split("\\s+", 2);
+        if (parts[0].equals(WORD_FLAG) || parts[0].equals(PREFIX_FLAG)) {
+            this.mode = parts[0];
+            this.keyword = parts.length > 1 ? parts[1].trim() : "";
+        } else {
+            this.mode = "";
+            this.keyword = trimmed;
+        }
     }
 
     /**
      * Executes the find command.
-     * Searches for tasks containing the keyword and displays matching results.
+     * Searches for tasks matching the keyword and displays matching results.
      *
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return False (continue running).
+     * @return The reply to show.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
         if (keyword.isEmpty()) {
             throw new ChironException("Find what? Silence tells me nothing.");
         }
 
-        List<Task> matches = tasks.find(keyword);
-        ui.showFindResult(matches);
-        return false;
+        if (!mode.isEmpty() && !keyword.chars().allMatch(Character::isLetterOrDigit)) {
+            throw new ChironException("One word at a time. Letters and digits only.");
+        }
+
+        List<Task> matches = switch (mode) {
+            case WORD_FLAG -> tasks.findWord(keyword);
+            case PREFIX_FLAG -> tasks.findPrefix(keyword);
+            default -> tasks.find(keyword);
+        };
+        return ui.showFindResult(matches);
     }
 }
@@ -11,13 +11,10 @@ public class HelpCommand extends Command {
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return False (continue running).
+     * @return The reply to show.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) {
-        ui.line();
-        ui.showHelp();
-        ui.line();
-        return false;
+    public Response execute(TaskList tasks, Ui ui, Storage storage) {
+        return ui.showHelp();
     }
 }
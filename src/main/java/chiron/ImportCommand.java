@@ -0,0 +1,86 @@
+package chiron;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Represents a command to run every line of a text file as a command, as one batch.
+ * If the storage confines imports to a directory, the path is resolved against it and may not leave it.
+ */
+public class ImportCommand extends Command {
+    /** The files being imported by the current thread, so that a file importing itself is caught. */
+    private static final ThreadLocal<Set<Path>> IMPORTING = ThreadLocal.withInitial(HashSet::new);
+
+    private final String path;
+
+    /**
+     * Constructs an ImportCommand.
+     *
+     * @param args The path of the file to import.
+     */
+    public ImportCommand(String args) {
+        this.path = args.trim();
+    }
+
+    /**
+     * Executes the import command.
+     * Reads the file and runs its lines as a {@link BatchCommand}.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler.
+     * @return A summary of the batch.
+     * @throws ChironException If the file cannot be read, is outside the import directory,
+     *                         is already being imported, or saving fails.
+     */
+    @Override
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+        if (path.isEmpty()) {
+            throw new ChironException("Import what? Give me a file.");
+        }
+
+        Path file = resolve(storage.getImportDirectory());
+        Set<Path> importing = IMPORTING.get();
+        if (!importing.add(file)) {
+            throw new ChironException(path + " is already being imported. A file can't import itself.");
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            return new BatchCommand(lines).execute(tasks, ui, storage);
+        } catch (IOException e) {
+            throw new ChironException("I couldn't read " + path + ". Check the path.");
+        } finally {
+            importing.remove(file);
+        }
+    }
+
+    /**
+     * Finds the real file behind the path, following links, so that every way of naming a file gives the same path.
+     *
+     * @param directory The directory the import is confined to, or null.
+     * @return The real path of the file.
+     * @throws ChironException If the file does not exist or lies outside the directory.
+     */
+    private Path resolve(Path directory) throws ChironException {
+        try {
+            if (directory == null) {
+                return Path.of(path).toRealPath();
+            }
+            // Checked before and after following links, so that nothing outside is even looked up
+            Path root = directory.toAbsolutePath().normalize();
+            Path file = root.resolve(path).normalize();
+            if (!file.startsWith(root) || !file.toRealPath().startsWith(root.toRealPath())) {
+                throw new ChironException("I can only import files from your own folder.");
+            }
+            return file.toRealPath();
+        } catch (IOException | InvalidPathException e) {
+            throw new ChironException("I couldn't read " + path + ". Check the path.");
+        }
+    }
+}
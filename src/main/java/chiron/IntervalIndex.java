@@ -0,0 +1,253 @@
+package chiron;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An interval tree over the events of a list, for finding the events that overlap a span of time.
+ *
+ * <p>The tree is a treap ordered by start time, in which every node also holds the latest end
+ * in its subtree. A query skips every subtree that ends before the span starts and, as the
+ * tree is ordered by start, everything right of a node that starts after the span ends, so
+ * it takes O(log n + k) for k overlapping events. Times are minutes since the epoch, taken from
+ * the events' {@link PackedTime}s, so the tree compares plain longs. As in {@link KeywordIndex}, each event gets
+ * a stamp when it is added, which breaks ties between events that start at the same time.
+ *
+ * <p>An event covers [start, end). An end date without a time covers that whole day, so
+ * events that only meet at a boundary, like back-to-back meetings, do not overlap.
+ */
+class IntervalIndex {
+    private final Map<Event, Long> stamps = new IdentityHashMap<>();
+    private final Random random = new Random();
+    private Node root;
+    private long nextStamp;
+
+    /**
+     * One event in the tree.
+     */
+    private static class Node {
+        private final Event event;
+        private final long start;
+        private final long end;
+        private final long stamp;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(Event event, long stamp, int priority) {
+            this.event = event;
+            this.start = start(event);
+            this.end = end(event);
+            this.stamp = stamp;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(long otherStart, long otherStamp) {
+            int byStart = Long.compare(start, otherStart);
+            return byStart != 0 ? byStart : Long.compare(stamp, otherStamp);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+        }
+    }
+
+    /**
+     * Indexes a task that was appended to the list. Tasks other than events are ignored.
+     *
+     * @param task The added task.
+     */
+    void add(Task task) {
+        if (task instanceof Event event) {
+            long stamp = nextStamp++;
+            stamps.put(event, stamp);
+            root = insert(root, new Node(event, stamp, random.nextInt()));
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The removed task.
+     */
+    void remove(Task task) {
+        if (task instanceof Event event) {
+            Long stamp = stamps.remove(event);
+            if (stamp != null) {
+                root = delete(root, start(event), stamp);
+            }
+        }
+    }
+
+    /**
+     * Returns the events that overlap the given event, ordered by start time.
+     * The event itself is left out if it is in the index.
+     *
+     * @param event The event to check.
+     * @return The overlapping events.
+     */
+    List<Event> findOverlapping(Event event) {
+        List<Event> overlapping = new ArrayList<>();
+        collectOverlapping(root, start(event), end(event), overlapping);
+        overlapping.removeIf(other -> other == event);
+        return overlapping;
+    }
+
+    /**
+     * Finds the pairs of overlapping events, ordered by the start of the earlier event.
+     * Walks the events in start order, pairing each with the following ones that start
+     * before it ends, so it takes O(n + k) time for k pairs. Only the first pairs up to the
+     * limit are kept and the rest are counted, so memory stays O(n + limit) even when every
+     * event overlaps every other.
+     *
+     * @param limit The maximum number of pairs to return.
+     * @return The first pairs, each with the event that starts first (or was added first) first,
+     *         and the number of pairs in all.
+     */
+    TaskList.ConflictReport findConflicts(int limit) {
+        List<Node> nodes = new ArrayList<>(stamps.size());
+        inOrder(root, nodes);
+        List<TaskList.Conflict> conflicts = new ArrayList<>(Math.min(limit, nodes.size()));
+        long count = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node first = nodes.get(i);
+            for (int j = i + 1; j < nodes.size() && nodes.get(j).start < first.end; j++) {
+                Node second = nodes.get(j);
+                // Only events from files written before ends were checked can end before they start
+                if (second.end > first.start) {
+                    if (count < limit) {
+                        conflicts.add(new TaskList.Conflict(first.event, second.event));
+                    }
+                    count++;
+                }
+            }
+        }
+        return new TaskList.ConflictReport(conflicts, count);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (node.compareTo(added.start, added.stamp) > 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node delete(Node node, long start, long stamp) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = node.compareTo(start, stamp);
+        if (cmp > 0) {
+            node.left = delete(node.left, start, stamp);
+        } else if (cmp < 0) {
+            node.right = delete(node.right, start, stamp);
+        } else {
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two treaps, where every start in the left one comes before every start in the right one.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    /**
+     * Returns whether two events overlap, as {@link #findOverlapping} would find them.
+     *
+     * @param first  One event.
+     * @param second The other event.
+     * @return True if their times overlap.
+     */
+    static boolean overlaps(Event first, Event second) {
+        return start(second) < end(first) && end(second) > start(first);
+    }
+
+    private static void collectOverlapping(Node node, long start, long end, List<Event> out) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collectOverlapping(node.left, start, end, out);
+        if (node.start < end) {
+            if (node.end > start) {
+                out.add(node.event);
+            }
+            collectOverlapping(node.right, start, end, out);
+        }
+    }
+
+    private static void inOrder(Node node, List<Node> out) {
+        if (node == null) {
+            return;
+        }
+        inOrder(node.left, out);
+        out.add(node);
+        inOrder(node.right, out);
+    }
+
+    private static long start(Event event) {
+        return PackedTime.epochMinutes(event.packedFrom());
+    }
+
+    private static long end(Event event) {
+        long to = event.packedTo();
+        return PackedTime.hasTime(to) ? PackedTime.epochMinutes(to) : PackedTime.endMinutes(to);
+    }
+}
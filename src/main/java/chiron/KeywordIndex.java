@@ -0,0 +1,137 @@
+package chiron;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An inverted index from the words of task descriptions to the tasks containing them.
+ * Words are runs of letters and digits, compared case-insensitively.
+ *
+ * <p>Each task gets an increasing stamp when it is added, and posting lists are keyed by
+ * stamp, so that equal tasks in the list are still told apart. Tasks are only ever
+ * appended to a TaskList, so each posting list, kept in insertion order, is already in
+ * list order. Results of a prefix query span several posting lists and are put back
+ * into list order by their stamps.
+ */
+class KeywordIndex {
+    private final NavigableMap<String, Map<Long, Task>> postings = new TreeMap<>();
+    private final Map<Task, Long> stamps = new IdentityHashMap<>();
+    private long nextStamp;
+
+    /**
+     * Indexes a task that was appended to the list.
+     *
+     * @param task The added task.
+     */
+    void add(Task task) {
+        long stamp = nextStamp++;
+        stamps.put(task, stamp);
+        for (String word : words(task.getDescription())) {
+            postings.computeIfAbsent(word, w -> new LinkedHashMap<>()).put(stamp, task);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The removed task.
+     */
+    void remove(Task task) {
+        Long stamp = stamps.remove(task);
+        if (stamp == null) {
+            return;
+        }
+        for (String word : words(task.getDescription())) {
+            Map<Long, Task> posting = postings.get(word);
+            if (posting != null) {
+                posting.remove(stamp);
+                if (posting.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks containing the given word, in list order.
+     *
+     * @param word The word to look up.
+     * @return The matching tasks.
+     */
+    List<Task> findWord(String word) {
+        Map<Long, Task> posting = postings.get(normalize(word));
+        return posting == null ? List.of() : List.copyOf(posting.values());
+    }
+
+    /**
+     * Returns the tasks containing a word that starts with the given prefix, in list order.
+     *
+     * @param prefix The prefix to look up.
+     * @return The matching tasks.
+     */
+    List<Task> findPrefix(String prefix) {
+        String from = normalize(prefix);
+        NavigableMap<Long, Task> matches = new TreeMap<>();
+        for (Map<Long, Task> posting : postings.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            matches.putAll(posting);
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Returns whether a description contains the given word, as {@link #findWord} would find it.
+     *
+     * @param description The description to check.
+     * @param word        The word to look for.
+     * @return True if the description contains the word.
+     */
+    static boolean hasWord(String description, String word) {
+        return words(description).contains(normalize(word));
+    }
+
+    /**
+     * Returns whether a description contains a word starting with the given prefix,
+     * as {@link #findPrefix} would find it.
+     *
+     * @param description The description to check.
+     * @param prefix      The prefix to look for.
+     * @return True if a word of the description starts with the prefix.
+     */
+    static boolean hasPrefix(String description, String prefix) {
+        String from = normalize(prefix);
+        return words(description).stream().anyMatch(word -> word.startsWith(from));
+    }
+
+    /**
+     * Splits a description into its distinct words.
+     *
+     * @param description The description to split.
+     * @return The normalized words.
+     */
+    private static Set<String> words(String description) {
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= description.length(); i++) {
+            boolean isWordChar = i < description.length() && Character.isLetterOrDigit(description.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(normalize(description.substring(start, i)));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,79 @@
+package chiron;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, with one bucket per power of two.
+ *
+ * <p>Recording is a bit count and two lock-free increments, cheap enough to leave on. The price
+ * is precision: a percentile is reported as the upper bound of its bucket, so it can be up to
+ * twice the true value. That is enough to tell microseconds from milliseconds.
+ */
+class LatencyHistogram {
+    private static final int BUCKETS = Long.SIZE;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Records one duration. Negative durations, from a clock going backwards, count as zero.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        // Bucket i holds durations below 2^i, and at least 2^(i-1) for i > 0
+        buckets.incrementAndGet(Math.min(BUCKETS - Long.numberOfLeadingZeros(value), BUCKETS - 1));
+        count.increment();
+        totalNanos.add(value);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return The count.
+     */
+    long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    long meanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    /**
+     * Returns an upper bound on the given percentile of the recorded durations.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The upper bound of the bucket holding the percentile in nanoseconds, or 0 if nothing was recorded.
+     */
+    long percentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
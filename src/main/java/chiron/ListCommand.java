@@ -1,21 +1,87 @@
 package chiron;
 
+import java.util.List;
+
 /**
- * Represents a command to list all tasks.
+ * Represents a command to list tasks.
+ * Shows one window of the list at a time, so that the size of the response is bounded
+ * however many tasks there are: the first page by default, a given page with
+ * {@code --page <n>}, or a range of task numbers with {@code <from>-<to>}.
  */
 public class ListCommand extends Command {
+    static final int PAGE_SIZE = 100;
+    static final int MAX_WINDOW = 1000;
+
+    private static final String PAGE_FLAG = "--page";
+
+    private final String args;
+
+    /**
+     * Constructs a ListCommand.
+     *
+     * @param args Empty, {@code --page <n>}, or a range {@code <from>-<to>} of task numbers.
+     */
+    public ListCommand(String args) {
+        this.args = args.trim();
+    }
+
     /**
      * Executes the list command.
-     * Displays all tasks in the list.
+     * Displays the requested window of the task list.
      *
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return False (continue running).
+     * @return The reply to show.
+     * @throws ChironException If the page or range is invalid.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) {
-        ui.showList(tasks);
-        return false;
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+        int from;
+        int to;
+        if (args.isEmpty()) {
+            from = 1;
+            to = PAGE_SIZE;
+        } else if (args.startsWith(PAGE_FLAG)) {
+            int page = parseNumber(args.substring(PAGE_FLAG.length()));
+            if (page < 1) {
+                throw new ChironException("That page doesn't exist.");
+            }
+            from = (int) Math.min((long) (page - 1) * PAGE_SIZE + 1, Integer.MAX_VALUE);
+            to = (int) Math.min((long) page * PAGE_SIZE, Integer.MAX_VALUE);
+        } else {
+            int dash = args.indexOf('-');
+            if (dash < 0) {
+                throw new ChironException("List a page with --page <n>, or a range with <from>-<to>.");
+            }
+            from = parseNumber(args.substring(0, dash));
+            to = parseNumber(args.substring(dash + 1));
+            if (from < 1 || to < from) {
+                throw new ChironException("A range runs from a smaller task number to a larger one.");
+            }
+            to = (int) Math.min(to, (long) from + MAX_WINDOW - 1);
+        }
+
+        // A snapshot keeps the window consistent with the size it was checked against
+        List<Task> all = tasks.snapshot();
+        if (!all.isEmpty() && from > all.size()) {
+            throw new ChironException("That page doesn't exist.");
+        }
+        return ui.showList(all, Math.min(from - 1, all.size()), Math.min(to, all.size()));
+    }
+
+    /**
+     * Parses a page or task number, which unlike {@link Parser#parseIndex} may be out of range.
+     *
+     * @param arg The string containing the number.
+     * @return The parsed number.
+     * @throws ChironException If the argument is not a number.
+     */
+    private static int parseNumber(String arg) throws ChironException {
+        try {
+            return Integer.parseInt(arg.trim());
+        } catch (NumberFormatException e) {
+            throw new ChironException("That wasn’t a number. Precision matters here.");
+        }
     }
 }
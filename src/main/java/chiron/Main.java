@@ -14,6 +14,7 @@ import javafx.stage.Stage;
 public class Main extends Application {
 
     private Chiron chiron = new Chiron();
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
@@ -28,11 +29,19 @@ public class Main extends Application {
             stage.setMinWidth(400.0);
 
             // Inject dependency
-            fxmlLoader.<MainWindow>getController().setChiron(chiron);
+            mainWindow = fxmlLoader.<MainWindow>getController();
+            mainWindow.setChiron(chiron);
 
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.shutdown();
+        }
+    }
 }
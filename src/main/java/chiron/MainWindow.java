@@ -1,52 +1,120 @@
 package chiron;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 
 /**
  * Controller for MainWindow. Provides the layout for the other controls.
+ *
+ * <p>Commands run one at a time on a worker thread, which is the only thread that touches
+ * Chiron, and their replies are posted back to the JavaFX application thread. Input sent
+ * while a command is running waits in the worker's queue, so the window never freezes.
  */
 public class MainWindow extends AnchorPane {
+    private static final int MAX_REPLY_LINES = 40;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    // Decoded once and shared by every window and dialog box
+    private static final Image USER_IMAGE = new Image(MainWindow.class.getResourceAsStream("/images/percy.jpeg"));
+    private static final Image CHIRON_IMAGE = new Image(MainWindow.class.getResourceAsStream("/images/chiron.jpeg"));
+
     @FXML
-    private ScrollPane scrollPane;
+    private ConversationView conversationView;
     @FXML
-    private VBox dialogContainer;
+    private TaskTable taskTable;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
     private Chiron chiron;
+    private final TextRenderer renderer = new TextRenderer(false);
+    private final BatchBuffer batch = new BatchBuffer();
 
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/percy.jpeg"));
-    private Image chironImage = new Image(this.getClass().getResourceAsStream("/images/chiron.jpeg"));
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chiron-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        conversationView.setImages(USER_IMAGE, CHIRON_IMAGE);
     }
 
     public void setChiron(Chiron d) {
         chiron = d;
+        if (chiron.getLoadError() != null) {
+            conversationView.addMessage(renderer.render(chiron.getLoadError()), false);
+        }
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing
-     * Chiron's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Shows the user input in the conversation right away and queues it for the worker.
+     * Once the command has run, Chiron's reply is added to the conversation and the tasks of
+     * a list or find reply are shown in the task table. Lines of a batch block are held back
+     * until its end line. Clears the user input.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = chiron.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getChironDialog(response, chironImage));
+        conversationView.addMessage(input, true);
         userInput.clear();
+
+        String command = batch.offer(input);
+        if (command == null) {
+            return;
+        }
+        worker.execute(() -> {
+            Response response = chiron.respond(command);
+            Platform.runLater(() -> showReply(response));
+        });
+    }
+
+    /**
+     * Waits for queued commands to finish, so that none of them is lost when the window closes.
+     */
+    public void shutdown() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void showReply(Response response) {
+        String reply = renderer.render(response);
+        if (response.listing() != null) {
+            taskTable.show(response.listing());
+            reply = shorten(reply, response.listing().tasks().size());
+        }
+        conversationView.addMessage(reply, false);
+    }
+
+    /**
+     * Cuts a long listing reply down to its first lines, as the task table already shows every task.
+     *
+     * @param response The reply.
+     * @param count    The number of tasks in the listing.
+     * @return The reply, shortened if it has too many lines.
+     */
+    private static String shorten(String response, int count) {
+        int end = -1;
+        for (int i = 0; i < MAX_REPLY_LINES; i++) {
+            end = response.indexOf('\n', end + 1);
+            if (end < 0 || end == response.length() - 1) {
+                return response;
+            }
+        }
+        return response.substring(0, end + 1) + "... all " + count + " tasks are in the table below.";
     }
 }
@@ -0,0 +1,402 @@
+package chiron;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts what Chiron does and times where it spends the time: parsing and running each kind
+ * of command, writing to disk, rendering replies and loading the task file.
+ *
+ * <p>Every recording method is lock-free and safe to call from any thread. A timer is started with
+ * {@link #startTimer()} and handed back to a recording method, which does nothing if metrics are
+ * disabled, so that a disabled Metrics costs one volatile read per call. The figures are shown by
+ * the stats command and, once {@link #registerMBean() registered}, over JMX.
+ *
+ * <p>Writes to disk and renders are also timed under the command that caused them. A write made
+ * while a command runs is put down to the command running on that thread, which {@link #recordParse}
+ * sets and {@link #recordExecute} clears. A render is put down to the command named by the reply,
+ * as a reply is often rendered on another thread. Writes made later in the background, such as a
+ * write-behind flush or a compaction, belong to no command and are only counted in the totals.
+ *
+ * <p>The size of the find indexes is not recorded but read from the task lists when asked for.
+ * The lists are held weakly, so a list that is no longer used, such as that of a user the server
+ * has let go of, drops out of the figure without being removed.
+ */
+public class Metrics implements MetricsMBean {
+    static final String OBJECT_NAME = "chiron:type=Metrics";
+
+    private static final long NOT_TIMED = 0;
+    private static final Metrics GLOBAL = new Metrics();
+
+    private final Map<Class<?>, Timings> commands = new ConcurrentHashMap<>();
+    private final LatencyHistogram saves = new LatencyHistogram();
+    private final LatencyHistogram renders = new LatencyHistogram();
+    private final LongAdder commandCount = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder tasksAdded = new LongAdder();
+    private final LongAdder tasksRemoved = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final ThreadLocal<Class<?>> running = new ThreadLocal<>();
+    private final Set<TaskList> taskLists = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private volatile boolean isEnabled = true;
+    private volatile long lastLoadNanos;
+    private volatile int lastLoadTasks;
+
+    /**
+     * The times spent on one kind of command.
+     *
+     * @param parse   The time taken to parse the command.
+     * @param execute The time taken to run it, including any writes to disk.
+     * @param save    The time taken by each write to disk made while it ran.
+     * @param render  The time taken to render its reply.
+     */
+    private record Timings(LatencyHistogram parse, LatencyHistogram execute, LatencyHistogram save,
+            LatencyHistogram render) {
+        Timings() {
+            this(new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Constructs an empty, enabled set of metrics. Chiron itself uses the {@link #global()} one.
+     */
+    Metrics() {
+    }
+
+    /**
+     * Returns the metrics shared by everything in this process.
+     *
+     * @return The global metrics.
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns whether anything is being recorded.
+     *
+     * @return True if metrics are enabled.
+     */
+    @Override
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Turns recording on or off. The figures recorded so far are kept.
+     *
+     * @param isEnabled True to record, false to ignore every call.
+     */
+    @Override
+    public void setEnabled(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as {@value #OBJECT_NAME}.
+     * Registering again, e.g. from a second Chiron in the same process, does nothing.
+     */
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered; the figures are the same either way
+        } catch (JMException e) {
+            throw new IllegalStateException("Metrics could not be registered", e);
+        }
+    }
+
+    /**
+     * Starts timing something.
+     *
+     * @return The start time to pass to a recording method, or a marker meaning "not timed" if disabled.
+     */
+    long startTimer() {
+        return isEnabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Counts one command and starts timing its parsing.
+     *
+     * @return The start time to pass to {@link #recordParse}.
+     */
+    long startCommand() {
+        if (!isEnabled) {
+            return NOT_TIMED;
+        }
+        commandCount.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time taken to parse a command. Until {@link #recordExecute} is called, writes to
+     * disk on this thread are also timed under the command.
+     *
+     * @param command The parsed command.
+     * @param start   The time returned by {@link #startCommand()}.
+     * @return The time now, to pass to {@link #recordExecute} as the start of running the command.
+     */
+    long recordParse(Command command, long start) {
+        running.set(command.getClass());
+        if (start == NOT_TIMED) {
+            return startTimer();
+        }
+        long now = System.nanoTime();
+        timings(command).parse().record(now - start);
+        return now;
+    }
+
+    /**
+     * Records the time taken to run a command, whether it succeeded or not.
+     *
+     * @param command The command that ran.
+     * @param start   The time returned by {@link #recordParse}.
+     */
+    void recordExecute(Command command, long start) {
+        running.remove();
+        if (start != NOT_TIMED) {
+            timings(command).execute().record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts a command that could not be parsed or failed to run.
+     */
+    void recordError() {
+        if (isEnabled) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Records one write to disk, also under the command running on this thread, if any.
+     *
+     * @param bytes The number of bytes written.
+     * @param start The time returned by {@link #startTimer()} before writing.
+     */
+    void recordSave(long bytes, long start) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        saves.record(nanos);
+        bytesWritten.add(bytes);
+        Class<?> command = running.get();
+        if (command != null) {
+            timings(command).save().record(nanos);
+        }
+    }
+
+    /**
+     * Records the time taken to render a reply, also under the command that produced it, if any.
+     *
+     * @param command The kind of command the reply answers, or null if it answers none.
+     * @param start   The time returned by {@link #startTimer()} before rendering.
+     */
+    void recordRender(Class<? extends Command> command, long start) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        renders.record(nanos);
+        if (command != null) {
+            timings(command).render().record(nanos);
+        }
+    }
+
+    /**
+     * Records a load of the task file, including the replay of its journal.
+     *
+     * @param taskCount The number of tasks loaded.
+     * @param start     The time returned by {@link #startTimer()} before loading.
+     */
+    void recordLoad(int taskCount, long start) {
+        if (start != NOT_TIMED) {
+            lastLoadNanos = System.nanoTime() - start;
+            lastLoadTasks = taskCount;
+        }
+    }
+
+    /**
+     * Counts a task added to a list.
+     */
+    void recordTaskAdded() {
+        if (isEnabled) {
+            tasksAdded.increment();
+        }
+    }
+
+    /**
+     * Counts a task removed from a list.
+     */
+    void recordTaskRemoved() {
+        if (isEnabled) {
+            tasksRemoved.increment();
+        }
+    }
+
+    /**
+     * Includes a task list in the reported size of the find indexes.
+     *
+     * @param tasks The task list.
+     */
+    void watch(TaskList tasks) {
+        taskLists.add(tasks);
+    }
+
+    @Override
+    public long getCommands() {
+        return commandCount.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getTasksAdded() {
+        return tasksAdded.sum();
+    }
+
+    @Override
+    public long getTasksRemoved() {
+        return tasksRemoved.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getSaveP99Micros() {
+        return saves.percentileNanos(99) / 1000;
+    }
+
+    @Override
+    public long getLastLoadMillis() {
+        return lastLoadNanos / 1_000_000;
+    }
+
+    @Override
+    public long getFindIndexBytes() {
+        return findIndexBytes(watchedTaskLists());
+    }
+
+    @Override
+    public String[] getReport() {
+        return describe().toArray(new String[0]);
+    }
+
+    /**
+     * Describes the figures recorded so far, one line per topic and one per kind of command run.
+     * Percentiles are rounded up to the next power of two nanoseconds.
+     *
+     * @return The lines of the report.
+     */
+    List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Commands: " + commandCount.sum() + " run, " + errors.sum() + " failed.");
+        lines.add("Tasks: " + tasksAdded.sum() + " added, " + tasksRemoved.sum() + " removed.");
+        List<TaskList> lists = watchedTaskLists();
+        lines.add("Find index: about " + formatBytes(findIndexBytes(lists)) + " over " + lists.size() + " list(s).");
+        lines.add("Disk: " + formatBytes(bytesWritten.sum()) + " written in " + saves.count() + " write(s)"
+                + (saves.count() == 0 ? "." : "; " + percentiles(saves) + "."));
+        lines.add("Last load: " + lastLoadTasks + " task(s) in " + formatNanos(lastLoadNanos) + ".");
+        lines.add("Rendering: " + renders.count() + " repl" + (renders.count() == 1 ? "y" : "ies")
+                + (renders.count() == 0 ? "." : "; " + percentiles(renders) + "."));
+
+        Map<String, Timings> byName = new TreeMap<>();
+        commands.forEach((type, timings) -> byName.put(nameOf(type), timings));
+        byName.forEach((name, timings) -> {
+            // A command shows up once parsed, which for the stats command itself is before it has run
+            lines.add(name + ": " + timings.parse().count() + " run(s); parse " + percentiles(timings.parse())
+                    + step("execute", timings.execute()) + step("save", timings.save())
+                    + step("render", timings.render()) + ".");
+        });
+        return lines;
+    }
+
+    private static String step(String name, LatencyHistogram histogram) {
+        return histogram.count() == 0 ? "" : "; " + name + " " + percentiles(histogram);
+    }
+
+    private List<TaskList> watchedTaskLists() {
+        // A synchronized set must be locked while it is copied
+        synchronized (taskLists) {
+            return new ArrayList<>(taskLists);
+        }
+    }
+
+    private static long findIndexBytes(List<TaskList> lists) {
+        long bytes = 0;
+        for (TaskList tasks : lists) {
+            bytes += tasks.substringIndexBytes();
+        }
+        return bytes;
+    }
+
+    private Timings timings(Command command) {
+        return timings(command.getClass());
+    }
+
+    private Timings timings(Class<?> command) {
+        return commands.computeIfAbsent(command, type -> new Timings());
+    }
+
+    private static String nameOf(Class<?> type) {
+        String name = type.getSimpleName();
+        if (name.endsWith("Command") && name.length() > "Command".length()) {
+            name = name.substring(0, name.length() - "Command".length());
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return "p50 " + formatNanos(histogram.percentileNanos(50))
+                + ", p99 " + formatNanos(histogram.percentileNanos(99))
+                + ", mean " + formatNanos(histogram.meanNanos());
+    }
+
+    /**
+     * Formats a duration with a unit that keeps the number short, e.g. {@code 850 ns} or {@code 12.3 ms}.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The formatted duration.
+     */
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1f us", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.1f s", nanos / 1e9);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KiB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MiB", bytes / (1024.0 * 1024));
+    }
+}
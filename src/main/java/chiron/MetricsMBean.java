@@ -0,0 +1,85 @@
+package chiron;
+
+/**
+ * The management interface of {@link Metrics}, shown by JMX clients such as JConsole
+ * under {@code chiron:type=Metrics}.
+ */
+public interface MetricsMBean {
+    /**
+     * Returns whether anything is being recorded.
+     *
+     * @return True if metrics are enabled.
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns recording on or off, e.g. from JConsole while looking into a slow server.
+     *
+     * @param isEnabled True to record, false to ignore every call.
+     */
+    void setEnabled(boolean isEnabled);
+
+    /**
+     * Returns the number of commands run, including failed ones.
+     *
+     * @return The command count.
+     */
+    long getCommands();
+
+    /**
+     * Returns the number of commands that failed to parse or run.
+     *
+     * @return The error count.
+     */
+    long getErrors();
+
+    /**
+     * Returns the number of tasks added and saved.
+     *
+     * @return The count of added tasks.
+     */
+    long getTasksAdded();
+
+    /**
+     * Returns the number of tasks removed and saved.
+     *
+     * @return The count of removed tasks.
+     */
+    long getTasksRemoved();
+
+    /**
+     * Returns the number of bytes written to task files and journals.
+     *
+     * @return The byte count.
+     */
+    long getBytesWritten();
+
+    /**
+     * Returns the 99th percentile of the time taken by a write to disk.
+     *
+     * @return The percentile in microseconds.
+     */
+    long getSaveP99Micros();
+
+    /**
+     * Returns the time the last load of a task file took.
+     *
+     * @return The load time in milliseconds.
+     */
+    long getLastLoadMillis();
+
+    /**
+     * Returns the estimated memory used by the find indexes of the task lists in use.
+     * A list whose index was turned off for growing past its limit counts as 0.
+     *
+     * @return The estimated size in bytes.
+     */
+    long getFindIndexBytes();
+
+    /**
+     * Returns the same report as the stats command.
+     *
+     * @return The lines of the report.
+     */
+    String[] getReport();
+}
@@ -0,0 +1,206 @@
+package chiron;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Dates of tasks packed into a single long: the minutes since 1970-01-01 00:00, shifted left
+ * by one, with the lowest bit set if the date has a time of day.
+ *
+ * <p>Packed dates compare as plain longs, in time order, and are formatted by hand, digit by
+ * digit, so comparing, saving and showing a date creates no objects but the resulting string.
+ * Dates are calendar dates without a time zone, so UTC is used only as a fixed reference.
+ */
+final class PackedTime {
+    /** Returned by parsers in place of a packed date when the input is not a valid date. */
+    static final long INVALID = Long.MIN_VALUE;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MIN_FAST_YEAR = 1;
+    private static final int MAX_FAST_YEAR = 9999;
+
+    private static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    // Only for years outside 1-9999, which the hand-written formatting does not cover
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MMM dd yyyy", Locale.ENGLISH);
+    private static final DateTimeFormatter DISPLAY_DATE_TIME =
+            DateTimeFormatter.ofPattern("MMM dd yyyy HHmm", Locale.ENGLISH);
+    private static final DateTimeFormatter STORE_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter STORE_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    private PackedTime() {
+    }
+
+    /**
+     * Packs a date/time. Seconds and smaller units are dropped.
+     *
+     * @param dt      The date/time.
+     * @param hasTime True if the time of day is meaningful.
+     * @return The packed date.
+     */
+    static long pack(LocalDateTime dt, boolean hasTime) {
+        return ofEpochMinutes(Math.floorDiv(dt.toEpochSecond(ZoneOffset.UTC), 60), hasTime);
+    }
+
+    /**
+     * Packs a date given by its fields, without checking that they form a valid date.
+     *
+     * @param year    The year.
+     * @param month   The month, from 1 to 12.
+     * @param day     The day of the month, from 1.
+     * @param hour    The hour, from 0 to 23.
+     * @param minute  The minute, from 0 to 59.
+     * @param hasTime True if the time of day is meaningful.
+     * @return The packed date.
+     */
+    static long of(int year, int month, int day, int hour, int minute, boolean hasTime) {
+        return ofEpochMinutes(epochDay(year, month, day) * MINUTES_PER_DAY + hour * 60L + minute, hasTime);
+    }
+
+    /**
+     * Packs a number of minutes since the epoch.
+     *
+     * @param epochMinutes The minutes since 1970-01-01 00:00.
+     * @param hasTime      True if the time of day is meaningful.
+     * @return The packed date.
+     */
+    static long ofEpochMinutes(long epochMinutes, boolean hasTime) {
+        return (epochMinutes << 1) | (hasTime ? 1 : 0);
+    }
+
+    /**
+     * Returns the minutes since the epoch of a packed date.
+     *
+     * @param packed The packed date.
+     * @return The minutes since 1970-01-01 00:00.
+     */
+    static long epochMinutes(long packed) {
+        return packed >> 1;
+    }
+
+    /**
+     * Returns whether a packed date has a time of day.
+     *
+     * @param packed The packed date.
+     * @return True if the time of day is meaningful.
+     */
+    static boolean hasTime(long packed) {
+        return (packed & 1) != 0;
+    }
+
+    /**
+     * Returns the minute just after a packed date ends: the next minute if it has a time,
+     * or the start of the next day if it is a whole day.
+     *
+     * @param packed The packed date.
+     * @return The end, in minutes since the epoch.
+     */
+    static long endMinutes(long packed) {
+        long minutes = epochMinutes(packed);
+        if (hasTime(packed)) {
+            return minutes + 1;
+        }
+        return (Math.floorDiv(minutes, MINUTES_PER_DAY) + 1) * MINUTES_PER_DAY;
+    }
+
+    /**
+     * Unpacks a date into a LocalDateTime.
+     *
+     * @param packed The packed date.
+     * @return The date/time, at midnight if it has no time of day.
+     */
+    static LocalDateTime toDateTime(long packed) {
+        return LocalDateTime.ofEpochSecond(epochMinutes(packed) * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Formats a packed date for display, as {@code MMM dd yyyy} or {@code MMM dd yyyy HHmm}.
+     *
+     * @param packed The packed date.
+     * @return The formatted date.
+     */
+    static String format(long packed) {
+        return write(packed, true);
+    }
+
+    /**
+     * Formats a packed date for storage, as {@code yyyy-MM-dd} or {@code yyyy-MM-dd HHmm}.
+     *
+     * @param packed The packed date.
+     * @return The formatted date.
+     */
+    static String store(long packed) {
+        return write(packed, false);
+    }
+
+    private static String write(long packed, boolean isDisplay) {
+        long minutes = epochMinutes(packed);
+        long days = Math.floorDiv(minutes, MINUTES_PER_DAY);
+        int minuteOfDay = Math.floorMod(minutes, MINUTES_PER_DAY);
+
+        // Civil date from a day count, after Howard Hinnant's days-to-civil algorithm
+        long shifted = days + 719_468;
+        long era = Math.floorDiv(shifted, 146_097);
+        int dayOfEra = (int) (shifted - era * 146_097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < MIN_FAST_YEAR || year > MAX_FAST_YEAR) {
+            return writeSlowly(packed, isDisplay);
+        }
+
+        StringBuilder out = new StringBuilder(16);
+        if (isDisplay) {
+            out.append(MONTHS[month - 1]).append(' ');
+            appendDigits(out, day, 2);
+            out.append(' ');
+            appendDigits(out, (int) year, 4);
+        } else {
+            appendDigits(out, (int) year, 4);
+            out.append('-');
+            appendDigits(out, month, 2);
+            out.append('-');
+            appendDigits(out, day, 2);
+        }
+        if (hasTime(packed)) {
+            out.append(' ');
+            appendDigits(out, minuteOfDay / 60, 2);
+            appendDigits(out, minuteOfDay % 60, 2);
+        }
+        return out.toString();
+    }
+
+    private static String writeSlowly(long packed, boolean isDisplay) {
+        LocalDateTime dt = toDateTime(packed);
+        if (isDisplay) {
+            return dt.format(hasTime(packed) ? DISPLAY_DATE_TIME : DISPLAY_DATE);
+        }
+        return dt.format(hasTime(packed) ? STORE_DATE_TIME : STORE_DATE);
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int width) {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Counts the days from 1970-01-01 to a date, after Howard Hinnant's days-from-civil algorithm.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        int yearOfEra = (int) (y - era * 400);
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+}
@@ -0,0 +1,158 @@
+package chiron;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads a task file on multiple cores.
+ * The file is read into memory once and split into line-aligned chunks, each chunk is parsed on a
+ * fork-join pool, and the results are stitched back together in file order.
+ *
+ * <p>The file is not memory-mapped: a mapping lives until it is garbage collected, and on Windows
+ * it keeps the next save from replacing the file. Lines end at {@code \n}, {@code \r\n} or a bare
+ * {@code \r}, as they do for {@link java.io.BufferedReader#readLine()}, so a file loads the same
+ * either way.
+ */
+class ParallelTaskLoader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * The tasks read from a file, along with its header line.
+     *
+     * @param tasks  The tasks, in file order.
+     * @param header The header line without its prefix, or null if the file has none.
+     */
+    record Snapshot(List<Task> tasks, String header) {
+    }
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a loader that parses on the given pool.
+     *
+     * @param pool The pool to parse chunks on.
+     */
+    ParallelTaskLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns whether a file is small enough to be read into a single array.
+     *
+     * @param size The file size in bytes.
+     * @return True if the file can be loaded by this loader.
+     */
+    static boolean canLoad(long size) {
+        return size <= MAX_ARRAY_SIZE;
+    }
+
+    /**
+     * Loads every task in a file.
+     *
+     * @param file         The file to load.
+     * @param headerPrefix The prefix marking an optional header on the first line.
+     * @return The tasks and header read from the file.
+     * @throws IOException If the file cannot be read.
+     */
+    Snapshot load(Path file, String headerPrefix) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        int size = data.length;
+        int dataStart = 0;
+        String header = null;
+        byte[] prefix = headerPrefix.getBytes(StandardCharsets.UTF_8);
+        if (Arrays.equals(data, 0, Math.min(prefix.length, size), prefix, 0, prefix.length)) {
+            int headerEnd = lineEnd(data, 0, size);
+            header = new String(data, prefix.length, headerEnd - prefix.length, StandardCharsets.UTF_8);
+            dataStart = nextLine(data, headerEnd, size);
+        }
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (size - dataStart) / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        List<ChunkParser> chunks = new ArrayList<>();
+        int start = dataStart;
+        while (start < size) {
+            int end = (long) start + chunkSize >= size
+                    ? size
+                    : nextLine(data, lineEnd(data, start + chunkSize, size), size);
+            chunks.add(new ChunkParser(data, start, end));
+            start = end;
+        }
+
+        for (ChunkParser chunk : chunks) {
+            pool.execute(chunk);
+        }
+
+        int total = 0;
+        for (ChunkParser chunk : chunks) {
+            total += chunk.join().size();
+        }
+        List<Task> tasks = new ArrayList<>(total);
+        for (ChunkParser chunk : chunks) {
+            tasks.addAll(chunk.join());
+        }
+        return new Snapshot(tasks, header);
+    }
+
+    /**
+     * Returns the position of the first line end at or after {@code from}, or {@code end} if there is none.
+     */
+    private static int lineEnd(byte[] data, int from, int end) {
+        int i = from;
+        while (i < end && data[i] != '\n' && data[i] != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the start of the line after the line end at {@code lineEnd}, taking {@code \r\n} as one line end.
+     */
+    private static int nextLine(byte[] data, int lineEnd, int end) {
+        if (lineEnd >= end) {
+            return end;
+        }
+        boolean isCrLf = data[lineEnd] == '\r' && lineEnd + 1 < end && data[lineEnd + 1] == '\n';
+        return lineEnd + (isCrLf ? 2 : 1);
+    }
+
+    /**
+     * Parses the lines of one chunk into tasks.
+     */
+    private static class ChunkParser extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] data;
+        private final int start;
+        private final int end;
+
+        ChunkParser(byte[] data, int start, int end) {
+            this.data = data;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            TaskLineParser parser = new TaskLineParser();
+            List<Task> tasks = new ArrayList<>();
+            int lineStart = start;
+            while (lineStart < end) {
+                int lineEnd = lineEnd(data, lineStart, end);
+                Task task = parser.parse(new String(data, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                if (task != null) {
+                    tasks.add(task);
+                }
+                lineStart = nextLine(data, lineEnd, end);
+            }
+            return tasks;
+        }
+    }
+}
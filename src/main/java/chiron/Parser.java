@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.List;
 
 /**
  * Parses user input into commands.
@@ -15,9 +16,6 @@ public class Parser {
     private static final DateTimeFormatter INPUT_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter INPUT_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
 
-    private static final DateTimeFormatter OUTPUT_DATE = DateTimeFormatter.ofPattern("MMM dd yyyy");
-    private static final DateTimeFormatter OUTPUT_DATE_TIME = DateTimeFormatter.ofPattern("MMM dd yyyy HHmm");
-
     /**
      * Helper record to hold parsed LocalDateTime and a boolean flag indicating if
      * time was provided.
@@ -34,6 +32,10 @@ public class Parser {
      * @throws ChironException If the command is invalid or input is empty.
      */
     public static Command parse(String raw) throws ChironException {
+        if (raw.indexOf('\n') >= 0) {
+            return new BatchCommand(List.of(raw.split("\n")));
+        }
+
         String trimmed = raw.trim();
         if (trimmed.isEmpty()) {
             throw new ChironException("Speak, or don’t. But don’t waste my time.");
@@ -46,7 +48,7 @@ public class Parser {
 
         return switch (word) {
             case "bye", "b" -> new ByeCommand();
-            case "list", "ls" -> new ListCommand();
+            case "list", "ls" -> new ListCommand(args);
             case "todo", "t" -> new TodoCommand(args);
             case "deadline", "d" -> new DeadlineCommand(args);
             case "event", "e" -> new EventCommand(args);
@@ -54,6 +56,12 @@ public class Parser {
             case "unmark", "um" -> new UnmarkCommand(args);
             case "delete", "rm" -> new DeleteCommand(args);
             case "find", "f" -> new FindCommand(args);
+            case "import" -> new ImportCommand(args);
+            case "due" -> new DueCommand(args);
+            case "between" -> new BetweenCommand(args);
+            case "upcoming", "up" -> new UpcomingCommand(args);
+            case "conflicts" -> new ConflictsCommand();
+            case "stats" -> new StatsCommand();
             case "help", "h" -> new HelpCommand();
             default -> throw new ChironException("That path doesn’t make sense yet.");
         };
@@ -99,7 +107,7 @@ public class Parser {
      * @return The formatted date string.
      */
     public static String formatDateTime(LocalDateTime dt, boolean hasTime) {
-        return hasTime ? dt.format(OUTPUT_DATE_TIME) : dt.toLocalDate().format(OUTPUT_DATE);
+        return PackedTime.format(PackedTime.pack(dt, hasTime));
     }
 
     /**
@@ -111,7 +119,7 @@ public class Parser {
      * @return The formatted storage string.
      */
     public static String storeDateTime(LocalDateTime dt, boolean hasTime) {
-        return hasTime ? dt.format(INPUT_DATE_TIME) : dt.toLocalDate().format(INPUT_DATE);
+        return PackedTime.store(PackedTime.pack(dt, hasTime));
     }
 
     /**
@@ -0,0 +1,65 @@
+package chiron;
+
+import java.util.List;
+
+/**
+ * Chiron's reply to one command: the lines of text to show, the tasks it lists, if any,
+ * and whether the conversation ends. A response is immutable and knows nothing of how it
+ * is shown, so it can be built on any thread and rendered to the console, a window or a socket.
+ *
+ * @param lines   The lines of the reply.
+ * @param listing The tasks listed by the reply, or null if it lists none.
+ * @param isExit  True if the user is leaving.
+ * @param command The kind of command the reply answers, or null if it answers none, so that
+ *                rendering it can be timed under that command.
+ */
+public record Response(List<String> lines, Listing listing, boolean isExit, Class<? extends Command> command) {
+
+    /**
+     * Tasks shown by a list or find command, for views that display them as a table.
+     * Task {@code i} of the list is shown with the number {@code i + 1}.
+     *
+     * @param tasks The tasks, which will not change.
+     * @param focus The index of the first task the command asked for.
+     */
+    public record Listing(List<Task> tasks, int focus) {
+    }
+
+    /**
+     * Constructs a response, copying the lines.
+     */
+    public Response {
+        lines = List.copyOf(lines);
+    }
+
+    /**
+     * Constructs a response that answers no command in particular.
+     *
+     * @param lines   The lines of the reply.
+     * @param listing The tasks listed by the reply, or null if it lists none.
+     * @param isExit  True if the user is leaving.
+     */
+    public Response(List<String> lines, Listing listing, boolean isExit) {
+        this(lines, listing, isExit, null);
+    }
+
+    /**
+     * Creates a plain reply made of the given lines.
+     *
+     * @param lines The lines of the reply.
+     * @return The response.
+     */
+    public static Response of(String... lines) {
+        return new Response(List.of(lines), null, false);
+    }
+
+    /**
+     * Returns this reply marked as the answer to the given command.
+     *
+     * @param command The command the reply answers.
+     * @return The marked response.
+     */
+    public Response answering(Command command) {
+        return new Response(lines, listing, isExit, command.getClass());
+    }
+}
@@ -0,0 +1,207 @@
+package chiron;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list stored as a sequence of short segments, which changes by making a new list.
+ *
+ * <p>A new list shares every segment of the old one but the one that changed, so appending or
+ * removing an element copies one segment and the array of segment ends: O(√n) work for segments
+ * of a few hundred elements, instead of the O(n) of copying the whole list. Lookups binary search
+ * the segment ends, so they take O(log n). A segment that shrinks to a quarter of its capacity
+ * is merged with a neighbour, so the number of segments stays proportional to the size.
+ *
+ * @param <E> The type of the elements.
+ */
+final class SegmentedList<E> extends AbstractList<E> implements RandomAccess {
+    static final int SEGMENT_SIZE = 512;
+
+    private final Object[][] segments;
+    private final int[] ends;
+
+    private SegmentedList(Object[][] segments, int[] ends) {
+        this.segments = segments;
+        this.ends = ends;
+    }
+
+    /**
+     * Returns a list holding the given elements, in order, in full segments.
+     *
+     * @param elements The elements.
+     * @param <E>      The type of the elements.
+     * @return The new list.
+     */
+    static <E> SegmentedList<E> of(List<? extends E> elements) {
+        int count = (elements.size() + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        Object[][] segments = new Object[count][];
+        int[] ends = new int[count];
+        Object[] all = elements.toArray();
+        for (int k = 0; k < count; k++) {
+            int from = k * SEGMENT_SIZE;
+            ends[k] = Math.min(from + SEGMENT_SIZE, all.length);
+            segments[k] = Arrays.copyOfRange(all, from, ends[k]);
+        }
+        return new SegmentedList<>(segments, ends);
+    }
+
+    @Override
+    public int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        int k = segmentOf(index);
+        return (E) segments[k][index - start(k)];
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int segment;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                return segment < segments.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E element = (E) segments[segment][offset++];
+                if (offset == segments[segment].length) {
+                    segment++;
+                    offset = 0;
+                }
+                return element;
+            }
+        };
+    }
+
+    /**
+     * Returns a list with the given element appended.
+     *
+     * @param element The element to append.
+     * @return The new list.
+     */
+    SegmentedList<E> with(E element) {
+        int last = segments.length - 1;
+        if (last < 0 || segments[last].length == SEGMENT_SIZE) {
+            Object[][] newSegments = Arrays.copyOf(segments, segments.length + 1);
+            int[] newEnds = Arrays.copyOf(ends, ends.length + 1);
+            newSegments[last + 1] = new Object[] {element};
+            newEnds[last + 1] = size() + 1;
+            return new SegmentedList<>(newSegments, newEnds);
+        }
+
+        Object[][] newSegments = segments.clone();
+        int[] newEnds = ends.clone();
+        Object[] segment = Arrays.copyOf(segments[last], segments[last].length + 1);
+        segment[segment.length - 1] = element;
+        newSegments[last] = segment;
+        newEnds[last]++;
+        return new SegmentedList<>(newSegments, newEnds);
+    }
+
+    /**
+     * Returns a list with the element at the given index removed.
+     *
+     * @param index The index of the element to remove.
+     * @return The new list.
+     */
+    SegmentedList<E> without(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        int k = segmentOf(index);
+        Object[] old = segments[k];
+        int offset = index - start(k);
+        Object[] segment = new Object[old.length - 1];
+        System.arraycopy(old, 0, segment, 0, offset);
+        System.arraycopy(old, offset + 1, segment, offset, segment.length - offset);
+
+        // A small segment is merged into a neighbour that has room for it, or dropped if empty
+        int neighbour = -1;
+        if (segment.length < SEGMENT_SIZE / 4) {
+            if (k + 1 < segments.length && segment.length + segments[k + 1].length <= SEGMENT_SIZE) {
+                neighbour = k + 1;
+            } else if (k > 0 && segment.length + segments[k - 1].length <= SEGMENT_SIZE) {
+                neighbour = k - 1;
+            }
+        }
+        if (neighbour < 0 && segment.length > 0) {
+            Object[][] newSegments = segments.clone();
+            int[] newEnds = ends.clone();
+            newSegments[k] = segment;
+            for (int i = k; i < newEnds.length; i++) {
+                newEnds[i]--;
+            }
+            return new SegmentedList<>(newSegments, newEnds);
+        }
+
+        int first = neighbour < 0 ? k : Math.min(k, neighbour);
+        Object[] merged = segment;
+        if (neighbour > k) {
+            merged = concat(segment, segments[k + 1]);
+        } else if (neighbour >= 0) {
+            merged = concat(segments[k - 1], segment);
+        }
+        // Segments first and first + 1 become one, or segment k disappears if it is empty
+        Object[][] newSegments = new Object[segments.length - 1][];
+        int[] newEnds = new int[ends.length - 1];
+        System.arraycopy(segments, 0, newSegments, 0, first);
+        System.arraycopy(ends, 0, newEnds, 0, first);
+        if (merged.length > 0) {
+            newSegments[first] = merged;
+            newEnds[first] = ends[first + 1] - 1;
+            System.arraycopy(segments, first + 2, newSegments, first + 1, segments.length - first - 2);
+            for (int i = first + 2; i < ends.length; i++) {
+                newEnds[i - 1] = ends[i] - 1;
+            }
+        } else {
+            System.arraycopy(segments, first + 1, newSegments, first, segments.length - first - 1);
+            for (int i = first + 1; i < ends.length; i++) {
+                newEnds[i - 1] = ends[i] - 1;
+            }
+        }
+        return new SegmentedList<>(newSegments, newEnds);
+    }
+
+    private int segmentOf(int index) {
+        // The first segment that ends after the index
+        int low = 0;
+        int high = ends.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int start(int k) {
+        return k == 0 ? 0 : ends[k - 1];
+    }
+
+    private static Object[] concat(Object[] first, Object[] second) {
+        Object[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
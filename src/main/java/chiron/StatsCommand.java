@@ -0,0 +1,28 @@
+package chiron;
+
+/**
+ * Represents a command to show how many commands have run and where their time went.
+ */
+public class StatsCommand extends Command {
+    /**
+     * Executes the stats command.
+     * Displays the figures recorded by the global metrics since Chiron started.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler.
+     * @return The reply to show.
+     * @throws ChironException If the storage belongs to a user who may not see the figures.
+     */
+    @Override
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+        if (!storage.isStatsShown()) {
+            throw new ChironException("Stats cover everyone on this server, so only whoever runs it can see them.");
+        }
+        Metrics metrics = Metrics.global();
+        if (!metrics.isEnabled()) {
+            return ui.showToUser("Chiron: I'm not keeping count. Start me with -Dchiron.metrics=true.");
+        }
+        return ui.showStats(metrics.describe());
+    }
+}
@@ -1,19 +1,168 @@
 package chiron;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Handles loading and saving tasks to a file.
  * Manages the storage file path and format conversion.
+ *
+ * <p>In journal mode (the default), each mutation is appended as one small record
+ * to a journal file next to the snapshot, and {@link #load()} replays the journal
+ * on top of the last snapshot. Every journal record carries a sequence number, and
+ * the snapshot remembers the last sequence number it contains, so records that are
+ * already part of the snapshot are never applied twice.
+ *
+ * <p>Once the journal grows past the configured ratio of the snapshot size, a
+ * background thread compacts it: it writes a fresh snapshot from a copy of the
+ * task list taken on the calling thread, then drops the journal records that
+ * the new snapshot already contains. The calling thread never waits for it:
+ * the journal is only locked long enough to rename it to a retired segment, so that
+ * new records start a fresh journal, and the retired segment is trimmed afterwards.
+ * A retired segment left behind by a crash is replayed before the journal.
+ *
+ * <p>How well writes survive a crash is set by the {@link Durability} level.
+ *
+ * <p>Between {@link #beginBatch()} and {@link #endBatch}, mutations are not written one by one.
+ * The list is saved once when the batch ends, and optionally every few mutations along the way,
+ * so a crash during a batch loses at most the mutations since the last save.
+ *
+ * <p>In write-behind mode, mutations are only queued on the calling thread. A background thread
+ * writes the queued journal records in one append (or saves the list, without the journal) at
+ * most the configured delay after the first of them, so commands do not wait for the disk.
+ * A crash loses at most the mutations of that delay plus the time one write takes. An optional
+ * limit on queued mutations makes the caller write them itself once it is reached.
+ * {@link #flush()} writes whatever is queued, and is also run when the JVM shuts down.
+ *
+ * <p>Compactions and write-behind flushes of every Storage in the process run on one small
+ * shared pool of daemon threads, and a single shutdown hook flushes every Storage in write-behind
+ * mode, so a server with thousands of users does not hold thousands of threads. {@link #close()}
+ * writes what is queued and lets go of the Storage.
  */
 public class Storage {
+    static final int BACKGROUND_THREADS = 2;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String RETIRED_SUFFIX = ".journal.old";
+    private static final String HEADER_PREFIX = "# ";
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final long DEFAULT_PARALLEL_LOAD_THRESHOLD = 8L << 20;
+
+    private static final String OP_ADD = "A";
+    private static final String OP_MARK = "M";
+    private static final String OP_UNMARK = "U";
+    private static final String OP_REMOVE = "R";
+
+    private static final double DEFAULT_COMPACTION_RATIO = 1.0;
+    private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+    private static final AtomicInteger BACKGROUND_THREAD_COUNT = new AtomicInteger();
+    private static final ScheduledExecutorService BACKGROUND = Executors.newScheduledThreadPool(
+            BACKGROUND_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "chiron-storage-" + BACKGROUND_THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * How much protection against crashes a write gets, traded against its latency.
+     */
+    public enum Durability {
+        /** Overwrites the snapshot in place. Fastest, but a crash can leave it half-written. */
+        NONE,
+        /** Writes to a temporary file that is renamed into place, so a process crash never loses data. */
+        FLUSH,
+        /** Like FLUSH, but forces every write to disk, so even a power loss never loses data. */
+        FSYNC
+    }
+
+    /**
+     * How the storage file is read on load.
+     */
+    public enum LoadStrategy {
+        /** Reads and parses the file line by line on the calling thread. */
+        SEQUENTIAL,
+        /** Parses line-aligned chunks of the file on all cores, once the file is large enough. */
+        PARALLEL
+    }
+
+    /**
+     * The on-disk format of the snapshot. The journal is always text.
+     */
+    public enum Format {
+        /** One human-readable line per task, e.g. {@code D | 0 | desc | 2024-05-15 2359}. */
+        TEXT,
+        /** The compact binary format of {@link BinaryTaskFormat}, several times faster to load and save. */
+        BINARY
+    }
+
     private final String filePath;
+    private final String journalPath;
+    private final String retiredPath;
+    private final Object journalLock = new Object();
+    private final Object trimLock = new Object();
+    private final Object snapshotLock = new Object();
+    private final Object flushLock = new Object();
+    private final StringBuilder pendingRecords = new StringBuilder();
+    private boolean isJournaling = true;
+    private double compactionRatio = DEFAULT_COMPACTION_RATIO;
+    private volatile Durability durability = Durability.FLUSH;
+    private LoadStrategy loadStrategy = LoadStrategy.PARALLEL;
+    private volatile Format format = Format.TEXT;
+    private long parallelLoadThreshold = DEFAULT_PARALLEL_LOAD_THRESHOLD;
+    private long sequence;
+    private long journalBytes;
+    private volatile long snapshotBytes;
+    private volatile long snapshotSequence;
+    private int batchDepth;
+    private int batchPending;
+    private int batchSaveInterval;
+    private volatile long writeBehindMillis;
+    private int writeBehindLimit;
+    private int pendingCount;
+    private TaskList pendingTasks;
+    private volatile boolean hasFlushFailed;
+    private Path importDirectory;
+    private boolean isStatsShown = true;
+
+    private Future<?> compaction;
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * The storages in write-behind mode, flushed by a single shutdown hook registered on first use.
+     */
+    private static final class ExitFlusher {
+        private static final Set<Storage> STORAGES = ConcurrentHashMap.newKeySet();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                for (Storage storage : STORAGES) {
+                    storage.flushInBackground();
+                }
+            }, "chiron-flush-on-exit"));
+        }
+    }
 
     /**
      * Constructs a Storage handler.
@@ -22,118 +171,903 @@ public class Storage {
      */
     public Storage(String filePath) {
         this.filePath = filePath;
+        this.journalPath = filePath + JOURNAL_SUFFIX;
+        this.retiredPath = filePath + RETIRED_SUFFIX;
+    }
+
+    /**
+     * Enables or disables journal mode.
+     * When disabled, every mutation rewrites the whole snapshot instead.
+     *
+     * @param isJournaling True to append mutations to the journal.
+     */
+    public void setJournaling(boolean isJournaling) {
+        this.isJournaling = isJournaling;
+    }
+
+    /**
+     * Sets how large the journal may grow, relative to the snapshot, before it is compacted.
+     * Journals smaller than 64 KiB are never compacted.
+     *
+     * @param compactionRatio The journal-to-snapshot size ratio that triggers compaction.
+     */
+    public void setCompactionRatio(double compactionRatio) {
+        assert compactionRatio > 0 : "compaction ratio should be positive";
+        this.compactionRatio = compactionRatio;
+    }
+
+    /**
+     * Sets the durability level used for snapshots and journal appends.
+     *
+     * @param durability The durability level.
+     */
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    /**
+     * Sets how the storage file is read on load.
+     *
+     * @param loadStrategy The load strategy.
+     */
+    public void setLoadStrategy(LoadStrategy loadStrategy) {
+        this.loadStrategy = loadStrategy;
+    }
+
+    /**
+     * Sets the file size below which a parallel load still reads the file sequentially.
+     *
+     * @param parallelLoadThreshold The threshold in bytes.
+     */
+    public void setParallelLoadThreshold(long parallelLoadThreshold) {
+        this.parallelLoadThreshold = parallelLoadThreshold;
+    }
+
+    /**
+     * Sets the format that snapshots are saved in.
+     * Loading detects the format of the existing file by itself.
+     *
+     * @param format The snapshot format.
+     */
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * Sets how many mutations a batch may hold back before it saves midway.
+     *
+     * @param batchSaveInterval The number of mutations between saves, or 0 to save only when the batch ends.
+     */
+    public void setBatchSaveInterval(int batchSaveInterval) {
+        assert batchSaveInterval >= 0 : "batch save interval should not be negative";
+        this.batchSaveInterval = batchSaveInterval;
+    }
+
+    /**
+     * Enables or disables write-behind mode.
+     * Once it is enabled, the queued mutations are flushed when the JVM shuts down, until {@link #close()}.
+     *
+     * @param maxDelayMillis The longest a mutation may wait before it is written, or 0 to write every
+     *                       mutation before returning.
+     * @param maxPending     The number of queued mutations at which the caller writes them itself,
+     *                       or 0 for no limit.
+     */
+    public void setWriteBehind(long maxDelayMillis, int maxPending) {
+        assert maxDelayMillis >= 0 && maxPending >= 0 : "write-behind bounds should not be negative";
+        synchronized (journalLock) {
+            this.writeBehindMillis = maxDelayMillis;
+            this.writeBehindLimit = maxPending;
+            if (maxDelayMillis > 0) {
+                ExitFlusher.STORAGES.add(this);
+            }
+        }
+    }
+
+    /**
+     * Confines the files that the import command may read to a directory.
+     *
+     * @param importDirectory The directory that imported paths are resolved against and must stay in,
+     *                        or null to allow any path the process can read.
+     */
+    public void setImportDirectory(Path importDirectory) {
+        this.importDirectory = importDirectory;
+    }
+
+    /**
+     * Returns the directory that the import command is confined to.
+     *
+     * @return The directory, or null if imports are not confined.
+     */
+    public Path getImportDirectory() {
+        return importDirectory;
+    }
+
+    /**
+     * Sets whether the stats command may show the figures of the whole process to the user of this storage.
+     *
+     * @param isStatsShown True to show them, false to refuse the stats command.
+     */
+    public void setStatsShown(boolean isStatsShown) {
+        this.isStatsShown = isStatsShown;
+    }
+
+    /**
+     * Returns whether the stats command may show the figures of the whole process.
+     *
+     * @return True if they may be shown.
+     */
+    public boolean isStatsShown() {
+        return isStatsShown;
+    }
+
+    /**
+     * Starts a batch of mutations, which are saved together when the batch ends.
+     * Batches may be nested, in which case only the outermost one saves.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch, saving the list if anything changed since the last save.
+     *
+     * @param tasks The list the batch changed.
+     * @throws ChironException If saving fails.
+     */
+    public void endBatch(TaskList tasks) throws ChironException {
+        assert batchDepth > 0 : "endBatch without beginBatch";
+        batchDepth--;
+        if (batchDepth == 0 && batchPending > 0) {
+            batchPending = 0;
+            save(tasks);
+        }
+    }
+
+    /**
+     * Converts a storage file, along with its journal, into the given format in one shot.
+     * The target may be the source itself. The journal ends up folded into the target,
+     * and any journal the target had of its own is dropped.
+     *
+     * @param sourcePath The path of the file to convert.
+     * @param targetPath The path to write the converted file to.
+     * @param format     The format to convert to.
+     * @throws ChironException If the source cannot be read or the target cannot be written.
+     */
+    public static void convert(String sourcePath, String targetPath, Format format) throws ChironException {
+        Storage from = new Storage(sourcePath);
+        List<Task> tasks = from.load();
+        Storage target = new Storage(targetPath);
+        target.setFormat(format);
+        // Saving up to the loaded sequence number trims every replayed record from the source journal
+        // when converting in place; a different target's journal belongs to other contents altogether
+        target.sequence = from.sequence;
+        Path source = Path.of(sourcePath).toAbsolutePath().normalize();
+        if (!Path.of(targetPath).toAbsolutePath().normalize().equals(source)) {
+            try {
+                Files.deleteIfExists(Path.of(target.journalPath));
+                Files.deleteIfExists(Path.of(target.retiredPath));
+            } catch (IOException e) {
+                throw new ChironException("Failed to save tasks. Amnesia sets in.");
+            }
+        }
+        target.save(new TaskList(tasks));
     }
 
     /**
-     * Loads tasks from the storage file.
+     * Loads tasks from the storage file, then replays the journal on top of them.
      *
      * @return A list of tasks loaded from the file.
      * @throws ChironException If the file cannot be read or format is invalid.
      */
     public List<Task> load() throws ChironException {
+        long start = Metrics.global().startTimer();
         List<Task> tasks = new ArrayList<>();
         File file = new File(filePath);
+        sequence = 0;
+        snapshotBytes = file.length();
 
-        if (!file.exists()) {
-            return tasks;
+        if (file.exists()) {
+            try {
+                if (BinaryTaskFormat.isBinary(file.toPath())) {
+                    tasks = loadBinary();
+                } else if (isParallelLoad(file.length())) {
+                    tasks = loadParallel();
+                } else {
+                    loadSequential(file, tasks);
+                }
+                assert tasks != null : "Loaded tasks list should not be null";
+            } catch (IOException e) {
+                throw new ChironException("Storage file could not be read.");
+            }
         }
 
-        try (Scanner scanner = new Scanner(file)) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                Task task = parseLine(line);
+        snapshotSequence = sequence;
+        replayJournal(tasks);
+        Metrics.global().recordLoad(tasks.size(), start);
+        return tasks;
+    }
+
+    private boolean isParallelLoad(long size) {
+        return loadStrategy == LoadStrategy.PARALLEL && size >= parallelLoadThreshold
+                && ParallelTaskLoader.canLoad(size);
+    }
+
+    /**
+     * Reads the snapshot line by line on the calling thread.
+     *
+     * @param file  The snapshot file.
+     * @param tasks The list to add the loaded tasks to.
+     * @throws IOException If the file cannot be read.
+     */
+    private void loadSequential(File file, List<Task> tasks) throws IOException {
+        TaskLineParser parser = new TaskLineParser();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(HEADER_PREFIX)) {
+                    sequence = parseSequence(line.substring(HEADER_PREFIX.length()));
+                    continue;
+                }
+                Task task = parser.parse(line);
                 if (task != null) {
                     tasks.add(task);
                 }
             }
-            assert tasks != null : "Loaded tasks list should not be null";
-        } catch (FileNotFoundException e) {
-            throw new ChironException("Storage file could not be found.");
         }
+    }
 
-        return tasks;
+    /**
+     * Reads a snapshot in the binary format.
+     *
+     * @return The loaded tasks, in file order.
+     * @throws IOException If the file cannot be read or is corrupted.
+     */
+    private List<Task> loadBinary() throws IOException {
+        BinaryTaskFormat.Contents contents = BinaryTaskFormat.read(Path.of(filePath));
+        sequence = contents.sequence();
+        return contents.tasks();
+    }
+
+    /**
+     * Reads the snapshot into memory and parses chunks of it on the common fork-join pool.
+     *
+     * @return The loaded tasks, in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    private List<Task> loadParallel() throws IOException {
+        ParallelTaskLoader.Snapshot snapshot = new ParallelTaskLoader(ForkJoinPool.commonPool())
+                .load(Path.of(filePath), HEADER_PREFIX);
+        if (snapshot.header() != null) {
+            sequence = parseSequence(snapshot.header());
+        }
+        return snapshot.tasks();
     }
 
     /**
      * Saves the current list of tasks to the storage file.
+     * The journal is cleared afterwards, as the snapshot now contains every record.
      *
      * @param tasks The list of tasks to save.
      * @throws ChironException If saving fails (e.g., IO error).
      */
     public void save(TaskList tasks) throws ChironException {
+        ensureParentDirectory();
         try {
-            File file = new File(filePath);
-            if (!file.getParentFile().exists()) {
-                boolean created = file.getParentFile().mkdirs();
-                if (!created && !file.getParentFile().exists()) {
-                    throw new ChironException("Failed to create directory for storage.");
+            long seq;
+            synchronized (journalLock) {
+                // Mutations held back by a batch have no sequence number of their own, so the snapshot
+                // takes a new one; otherwise a compaction queued before the batch, holding an older copy
+                // of the list under the same number, would overwrite it
+                seq = ++sequence;
+            }
+            writeSnapshot(tasks.snapshot(), seq);
+            trimJournal(seq);
+        } catch (IOException e) {
+            throw new ChironException("Failed to save tasks. Amnesia sets in.");
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given tasks, tagged with the last journal sequence number it contains.
+     * Unless durability is {@link Durability#NONE}, the snapshot is written to a temporary file first
+     * and then moved into place, so a crash never leaves a half-written snapshot.
+     * A snapshot older than the current one is discarded.
+     *
+     * @param tasks The tasks to write.
+     * @param seq   The sequence number of the last journal record reflected in the tasks.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    private void writeSnapshot(List<Task> tasks, long seq) throws IOException {
+        synchronized (snapshotLock) {
+            if (seq < snapshotSequence) {
+                return;
+            }
+
+            long start = Metrics.global().startTimer();
+            try (AtomicFileWriter writer = new AtomicFileWriter(Path.of(filePath), durability)) {
+                if (format == Format.BINARY) {
+                    BinaryTaskFormat.writeHeader(writer, seq);
+                    for (Task task : tasks) {
+                        BinaryTaskFormat.writeTask(writer, task);
+                    }
+                } else {
+                    writer.writeLine(HEADER_PREFIX + seq);
+                    for (Task task : tasks) {
+                        writer.writeLine(task.toSaveString());
+                    }
                 }
+                writer.commit();
+                snapshotBytes = writer.bytesWritten();
             }
+            Metrics.global().recordSave(snapshotBytes, start);
+            snapshotSequence = seq;
+        }
+    }
 
-            FileWriter writer = new FileWriter(filePath);
-            for (Task task : tasks.asUnmodifiableList()) {
-                writer.write(task.toSaveString() + "\n");
+    /**
+     * Drops the journal records that are already contained in the snapshot.
+     * Records appended after the snapshot was taken are kept.
+     *
+     * <p>Mutations are only held up while the journal is renamed to the retired segment. Reading and
+     * rewriting the retired segment happens outside the journal lock, under a lock of its own.
+     * If the retired segment still holds records newer than the snapshot, e.g. because a save
+     * overtook a compaction, the journal is left as it is and rotated by the next trim.
+     *
+     * @param seq The sequence number of the last record contained in the snapshot.
+     * @throws IOException If the journal cannot be rotated or the retired segment cannot be rewritten.
+     */
+    private void trimJournal(long seq) throws IOException {
+        synchronized (trimLock) {
+            Path retired = Path.of(retiredPath);
+            trimRetired(retired, seq);
+            if (!Files.exists(retired) && rotateJournal(retired)) {
+                trimRetired(retired, seq);
             }
-            writer.close();
-        } catch (IOException e) {
-            throw new ChironException("Failed to save tasks. Amnesia sets in.");
         }
     }
 
     /**
-     * Parses a line from the storage file into a Task object.
-     * Format: T | 0/1 | desc
-     * D | 0/1 | desc | by
-     * E | 0/1 | desc | from | to
+     * Renames the journal to the retired segment, so that the next record starts a new journal.
      *
-     * @param line The line string to parse.
-     * @return The parsed Task, or null if parsing fails.
+     * @param retired The retired segment, which must not exist.
+     * @return True if there was a journal to rename.
+     * @throws IOException If the journal cannot be renamed.
      */
-    private Task parseLine(String line) {
-        // Expected format:
-        // T | 0/1 | desc
-        // D | 0/1 | desc | yyyy-MM-dd [HHmm]
-        // E | 0/1 | desc | yyyy-MM-dd [HHmm] | yyyy-MM-dd [HHmm]
-        String[] parts = line.split("\\s*\\|\\s*");
-        if (parts.length < 3) {
-            return null;
+    private boolean rotateJournal(Path retired) throws IOException {
+        // A write-behind flush appends outside journalLock, so it is held off as well
+        synchronized (flushLock) {
+            synchronized (journalLock) {
+                Path journal = Path.of(journalPath);
+                if (!Files.exists(journal)) {
+                    journalBytes = 0;
+                    return false;
+                }
+                Files.move(journal, retired, StandardCopyOption.ATOMIC_MOVE);
+                journalBytes = 0;
+                return true;
+            }
         }
+    }
 
-        String type = parts[0].trim();
-        boolean done = "1".equals(parts[1].trim());
-        String description = parts[2].trim();
+    /**
+     * Drops the records of the retired segment that are contained in the snapshot,
+     * deleting the segment once none are left.
+     *
+     * @param retired The retired segment.
+     * @param seq     The sequence number of the last record contained in the snapshot.
+     * @throws IOException If the segment cannot be read or rewritten.
+     */
+    private void trimRetired(Path retired, long seq) throws IOException {
+        if (!Files.exists(retired)) {
+            return;
+        }
 
-        Task t;
-        switch (type) {
-            case "T":
-                t = new Todo(description);
-                break;
-            case "D":
-                if (parts.length < 4) {
-                    return null;
+        List<String> records = Files.readAllLines(retired, StandardCharsets.UTF_8);
+        List<String> kept = new ArrayList<>();
+        for (String record : records) {
+            int bar = record.indexOf('|');
+            if (bar > 0 && parseSequence(record.substring(0, bar)) > seq) {
+                kept.add(record);
+            }
+        }
+
+        if (kept.isEmpty()) {
+            Files.delete(retired);
+            return;
+        }
+        if (kept.size() == records.size()) {
+            return;
+        }
+        // The segment is never rewritten in place, or a crash could lose records newer than the snapshot
+        Durability trimDurability = durability == Durability.NONE ? Durability.FLUSH : durability;
+        try (AtomicFileWriter writer = new AtomicFileWriter(retired, trimDurability)) {
+            for (String record : kept) {
+                writer.writeLine(record);
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * Persists a task that has just been added to the end of the list.
+     *
+     * @param tasks The list the task was added to.
+     * @param task  The added task.
+     * @throws ChironException If saving fails.
+     */
+    public void recordAdd(TaskList tasks, Task task) throws ChironException {
+        Metrics.global().recordTaskAdded();
+        if (deferToBatch(tasks)) {
+            return;
+        }
+        persist(tasks, OP_ADD + " | " + task.toSaveString());
+    }
+
+    /**
+     * Persists a change to the done status of a task.
+     *
+     * @param tasks The list containing the task.
+     * @param index The zero-based index of the task.
+     * @param done  The new done status.
+     * @throws ChironException If saving fails.
+     */
+    public void recordSetDone(TaskList tasks, int index, boolean done) throws ChironException {
+        if (deferToBatch(tasks)) {
+            return;
+        }
+        persist(tasks, (done ? OP_MARK : OP_UNMARK) + " | " + index);
+    }
+
+    /**
+     * Persists the removal of a task.
+     *
+     * @param tasks The list the task was removed from.
+     * @param index The zero-based index the task was removed from.
+     * @throws ChironException If saving fails.
+     */
+    public void recordRemove(TaskList tasks, int index) throws ChironException {
+        Metrics.global().recordTaskRemoved();
+        if (deferToBatch(tasks)) {
+            return;
+        }
+        persist(tasks, OP_REMOVE + " | " + index);
+    }
+
+    /**
+     * Writes one mutation as configured: queued for a background flush, appended to the journal, or saved
+     * with the list.
+     *
+     * @param tasks  The list that changed.
+     * @param record The journal record describing the change.
+     * @throws ChironException If writing fails, or an earlier write-behind flush failed.
+     */
+    private void persist(TaskList tasks, String record) throws ChironException {
+        if (writeBehindMillis > 0) {
+            writeBehind(tasks, record);
+            return;
+        }
+        if (!isJournaling) {
+            save(tasks);
+            return;
+        }
+        appendRecord(record);
+        compactIfNeeded(tasks);
+    }
+
+    /**
+     * Queues a mutation for a background flush, scheduling a flush if none is due yet.
+     * Once the queue holds the maximum number of mutations, they are written right away instead.
+     *
+     * @param tasks  The list that changed.
+     * @param record The journal record describing the change.
+     * @throws ChironException If writing fails, or an earlier write-behind flush failed.
+     */
+    private void writeBehind(TaskList tasks, String record) throws ChironException {
+        boolean isFull;
+        synchronized (journalLock) {
+            if (isJournaling) {
+                // Records get their sequence number now, so that they replay in the order they happened
+                sequence++;
+                pendingRecords.append(sequence).append(" | ").append(record).append('\n');
+            }
+            pendingTasks = tasks;
+            pendingCount++;
+            isFull = writeBehindLimit > 0 && pendingCount >= writeBehindLimit;
+            if (!isFull && scheduledFlush == null) {
+                scheduledFlush = BACKGROUND.schedule(this::flushInBackground, writeBehindMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (isFull) {
+            flush();
+        } else if (isJournaling) {
+            compactIfNeeded(tasks);
+        }
+        if (hasFlushFailed) {
+            hasFlushFailed = false;
+            throw new ChironException("Some changes could not be saved yet. I'll keep trying.");
+        }
+    }
+
+    /**
+     * Writes the mutations queued in write-behind mode, all at once.
+     * The journal records are appended with a single write, or the list is saved if journaling is off.
+     * If writing fails, the mutations stay queued.
+     *
+     * @throws ChironException If writing fails.
+     */
+    public void flush() throws ChironException {
+        synchronized (flushLock) {
+            String records;
+            TaskList tasks;
+            int count;
+            synchronized (journalLock) {
+                if (pendingCount == 0) {
+                    return;
                 }
-                Parser.ParsedDateTime by = Parser.parseDateTime(parts[3].trim());
-                if (by == null) {
-                    return null;
+                records = pendingRecords.toString();
+                tasks = pendingTasks;
+                count = pendingCount;
+                pendingRecords.setLength(0);
+                pendingTasks = null;
+                pendingCount = 0;
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
                 }
-                t = new Deadline(description, by.value(), by.hasTime());
-                break;
-            case "E":
-                if (parts.length < 5) {
-                    return null;
+            }
+
+            try {
+                if (records.isEmpty()) {
+                    save(tasks);
+                    return;
+                }
+                ensureParentDirectory();
+                byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+                long start = Metrics.global().startTimer();
+                AtomicFileWriter.append(Path.of(journalPath), bytes, durability);
+                Metrics.global().recordSave(bytes.length, start);
+                synchronized (journalLock) {
+                    journalBytes += bytes.length;
+                }
+            } catch (IOException | ChironException e) {
+                synchronized (journalLock) {
+                    pendingRecords.insert(0, records);
+                    pendingTasks = pendingTasks == null ? tasks : pendingTasks;
+                    pendingCount += count;
                 }
-                Parser.ParsedDateTime from = Parser.parseDateTime(parts[3].trim());
-                Parser.ParsedDateTime to = Parser.parseDateTime(parts[4].trim());
-                if (from == null || to == null) {
-                    return null;
+                throw new ChironException("Failed to save tasks. Amnesia sets in.");
+            }
+        }
+    }
+
+    /**
+     * Writes whatever is still queued and waits for a running compaction, so that the files are
+     * complete and no background thread or shutdown hook refers to this Storage any more.
+     * The Storage should not be used afterwards. If writing fails, the queued mutations are still
+     * flushed when the JVM shuts down.
+     *
+     * @throws ChironException If the queued mutations cannot be written.
+     */
+    public void close() throws ChironException {
+        flush();
+        awaitCompaction();
+        ExitFlusher.STORAGES.remove(this);
+    }
+
+    /**
+     * Flushes on a background thread or at shutdown, where there is nobody to report a failure to.
+     * A failure is reported by the next mutation instead, which also schedules a retry.
+     */
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (ChironException e) {
+            hasFlushFailed = true;
+        }
+    }
+
+    /**
+     * Holds back a mutation if a batch is running, saving midway once the interval is reached.
+     *
+     * @param tasks The list that changed.
+     * @return True if the mutation was handled by the batch.
+     * @throws ChironException If a midway save fails.
+     */
+    private boolean deferToBatch(TaskList tasks) throws ChironException {
+        if (batchDepth == 0) {
+            return false;
+        }
+        batchPending++;
+        if (batchSaveInterval > 0 && batchPending >= batchSaveInterval) {
+            batchPending = 0;
+            save(tasks);
+        }
+        return true;
+    }
+
+    /**
+     * Appends one record to the journal, tagged with the next sequence number.
+     *
+     * @param record The record body.
+     * @throws ChironException If the journal cannot be written.
+     */
+    private void appendRecord(String record) throws ChironException {
+        try {
+            ensureParentDirectory();
+            synchronized (journalLock) {
+                sequence++;
+                byte[] line = (sequence + " | " + record + "\n").getBytes(StandardCharsets.UTF_8);
+                long start = Metrics.global().startTimer();
+                AtomicFileWriter.append(Path.of(journalPath), line, durability);
+                Metrics.global().recordSave(line.length, start);
+                journalBytes += line.length;
+            }
+        } catch (IOException e) {
+            throw new ChironException("Failed to save tasks. Amnesia sets in.");
+        }
+    }
+
+    /**
+     * Starts a background compaction if the journal has outgrown the snapshot
+     * and no compaction is already running.
+     *
+     * @param tasks The current list of tasks.
+     */
+    private void compactIfNeeded(TaskList tasks) {
+        long seq;
+        synchronized (journalLock) {
+            long threshold = (long) (compactionRatio * Math.max(snapshotBytes, MIN_COMPACTION_BYTES));
+            if (journalBytes < threshold || (compaction != null && !compaction.isDone())) {
+                return;
+            }
+            seq = sequence;
+        }
+
+        // The copy is taken here so that it matches seq exactly. Tasks only change afterwards
+        // through mark/unmark, whose records are newer than seq and replay to the same result.
+        List<Task> copy = tasks.snapshot();
+        compaction = BACKGROUND.submit(() -> {
+            try {
+                writeSnapshot(copy, seq);
+                trimJournal(seq);
+            } catch (IOException e) {
+                // The journal is left untouched, so nothing is lost; the next mutation retries.
+            }
+        });
+    }
+
+    /**
+     * Runs a task on the background threads shared by every Storage, e.g. to hold them up in a test.
+     *
+     * @param task The task to run.
+     */
+    static void runInBackground(Runnable task) {
+        BACKGROUND.execute(task);
+    }
+
+    /**
+     * Waits for a running background compaction, if any, to finish.
+     */
+    void awaitCompaction() {
+        Future<?> running = compaction;
+        if (running == null) {
+            return;
+        }
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for the write-behind flush that is due, if any, to finish writing.
+     */
+    void awaitFlush() {
+        Future<?> due;
+        synchronized (journalLock) {
+            due = scheduledFlush;
+        }
+        if (due != null) {
+            try {
+                due.get();
+            } catch (CancellationException e) {
+                // A flush took its place, which holds flushLock until it has written
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        synchronized (flushLock) {
+            // Entered once no flush is writing any more
+        }
+    }
+
+    /**
+     * Applies the journal records that are newer than the snapshot to the loaded tasks, starting
+     * with those of a retired segment that a crash kept a compaction from trimming.
+     * Replay stops at the first malformed record, or at a last line without its newline, either of
+     * which can only be a write torn by a crash. The journal is then cut back to the last complete
+     * record, so that the next record is not appended to the torn one. The retired segment and the
+     * journal count as one log here: a bad record in the segment cuts off the whole journal as well.
+     *
+     * @param tasks The tasks loaded from the snapshot.
+     * @throws ChironException If the journal cannot be read or repaired.
+     */
+    private void replayJournal(List<Task> tasks) throws ChironException {
+        TaskLineParser parser = new TaskLineParser();
+        Path journal = Path.of(journalPath);
+        Path retired = Path.of(retiredPath);
+        journalBytes = 0;
+        if (Files.exists(retired)) {
+            byte[] data = readJournal(retired);
+            int validEnd = replayRecords(data, tasks, parser);
+            if (validEnd < data.length) {
+                truncateJournal(retired, validEnd);
+                if (Files.exists(journal)) {
+                    truncateJournal(journal, 0);
                 }
-                t = new Event(description, from.value(), from.hasTime(), to.value(), to.hasTime());
+                return;
+            }
+        }
+        if (!Files.exists(journal)) {
+            return;
+        }
+
+        byte[] data = readJournal(journal);
+        int validEnd = replayRecords(data, tasks, parser);
+        journalBytes = validEnd;
+        if (validEnd < data.length) {
+            truncateJournal(journal, validEnd);
+        }
+    }
+
+    private static byte[] readJournal(Path journal) throws ChironException {
+        try {
+            return Files.readAllBytes(journal);
+        } catch (IOException e) {
+            throw new ChironException("Storage journal could not be read.");
+        }
+    }
+
+    /**
+     * Applies the complete records of one journal segment that are newer than the last one applied.
+     * Records already applied from an earlier segment or the snapshot are skipped.
+     *
+     * @param data   The contents of the segment.
+     * @param tasks  The tasks to apply the records to.
+     * @param parser The parser for added tasks.
+     * @return The length of the records up to the first torn or malformed one, in bytes.
+     */
+    private int replayRecords(byte[] data, List<Task> tasks, TaskLineParser parser) {
+        int validEnd = 0;
+        for (int newline; (newline = indexOf(data, (byte) '\n', validEnd)) >= 0; validEnd = newline + 1) {
+            String record = new String(data, validEnd, newline - validEnd, StandardCharsets.UTF_8);
+            int first = record.indexOf('|');
+            int second = first < 0 ? -1 : record.indexOf('|', first + 1);
+            if (second < 0) {
+                break;
+            }
+            long seq = parseSequence(record.substring(0, first));
+            if (seq < 0) {
+                break;
+            }
+            if (seq <= sequence) {
+                continue;
+            }
+            String op = record.substring(first + 1, second).trim();
+            if (!applyRecord(tasks, parser, op, record.substring(second + 1))) {
                 break;
+            }
+            sequence = seq;
+        }
+        return validEnd;
+    }
+
+    private static int indexOf(byte[] data, byte value, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Cuts a torn record off the end of the journal.
+     *
+     * @param journal The journal file or retired segment.
+     * @param length  The length of its complete records in bytes.
+     * @throws ChironException If the journal cannot be truncated.
+     */
+    private void truncateJournal(Path journal, long length) throws ChironException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            if (durability == Durability.FSYNC) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new ChironException("Storage journal could not be repaired.");
+        }
+    }
+
+    /**
+     * Applies a single journal record to the list of tasks.
+     *
+     * @param tasks  The tasks to modify.
+     * @param parser The parser for added tasks.
+     * @param op     The record operation.
+     * @param args   The record arguments.
+     * @return True if the record was valid and applied, false otherwise.
+     */
+    private boolean applyRecord(List<Task> tasks, TaskLineParser parser, String op, String args) {
+        if (OP_ADD.equals(op)) {
+            Task task = parser.parse(args);
+            if (task == null) {
+                return false;
+            }
+            tasks.add(task);
+            return true;
+        }
+
+        int index;
+        try {
+            index = Integer.parseInt(args.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (index < 0 || index >= tasks.size()) {
+            return false;
+        }
+
+        switch (op) {
+            case OP_MARK:
+                tasks.get(index).setDone(true);
+                return true;
+            case OP_UNMARK:
+                tasks.get(index).setDone(false);
+                return true;
+            case OP_REMOVE:
+                tasks.remove(index);
+                return true;
             default:
-                return null;
+                return false;
+        }
+    }
+
+    /**
+     * Parses a sequence number, returning -1 if it is malformed.
+     *
+     * @param raw The raw sequence number.
+     * @return The sequence number, or -1 if it cannot be parsed.
+     */
+    private static long parseSequence(String raw) {
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            return -1;
         }
+    }
 
-        t.setDone(done);
-        return t;
+    /**
+     * Creates the directory holding the storage file if it does not exist yet.
+     *
+     * @throws ChironException If the directory cannot be created.
+     */
+    private void ensureParentDirectory() throws ChironException {
+        File parent = new File(filePath).getAbsoluteFile().getParentFile();
+        if (!parent.exists()) {
+            boolean created = parent.mkdirs();
+            if (!created && !parent.exists()) {
+                throw new ChironException("Failed to create directory for storage.");
+            }
+        }
     }
 }
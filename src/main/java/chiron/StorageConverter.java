@@ -0,0 +1,26 @@
+package chiron;
+
+/**
+ * Converts a Chiron storage file between the text and binary formats.
+ * Usage: {@code StorageConverter <source> <target> <text|binary>}
+ */
+public class StorageConverter {
+    /**
+     * Runs the conversion.
+     *
+     * @param args The source path, target path and target format.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: StorageConverter <source> <target> <text|binary>");
+            System.exit(1);
+        }
+
+        try {
+            Storage.convert(args[0], args[1], Storage.Format.valueOf(args[2].toUpperCase()));
+        } catch (ChironException | IllegalArgumentException e) {
+            System.out.println("Conversion failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
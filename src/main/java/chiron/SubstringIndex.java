@@ -0,0 +1,256 @@
+package chiron;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trigram index that narrows down the tasks whose description may contain a substring.
+ * Every candidate is still checked with {@link String#contains}, so the results are exactly
+ * those of a linear scan.
+ *
+ * <p>Each task gets an increasing stamp when added, and each trigram maps to the stamps of
+ * the tasks containing it. As tasks are only appended, posting lists are sorted by
+ * construction and their intersection comes out in list order. Removed tasks leave dead
+ * stamps behind, which are purged once they outnumber the live ones.
+ *
+ * <p>The index estimates its own memory use. Once that exceeds the configured limit, it
+ * drops its contents and stays disabled, and lookups fall back to a scan.
+ */
+class SubstringIndex {
+    static final int GRAM = 3;
+    static final long DEFAULT_MAX_BYTES = 512L << 20;
+
+    private static final int POSTING_ENTRY_BYTES = Long.BYTES;
+    private static final int POSTING_OVERHEAD_BYTES = 80;
+    private static final int TASK_OVERHEAD_BYTES = 96;
+    private static final int MIN_PURGE_SIZE = 1024;
+
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private final Map<Task, Long> stamps = new IdentityHashMap<>();
+    private final Map<Long, Task> tasksByStamp = new HashMap<>();
+    private long nextStamp;
+    private long entries;
+    private long deadTasks;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private boolean isEnabled = true;
+
+    /**
+     * A growable, sorted array of task stamps.
+     */
+    private static class Posting {
+        private long[] stamps = new long[2];
+        private int size;
+
+        void add(long stamp) {
+            if (size == stamps.length) {
+                stamps = Arrays.copyOf(stamps, size * 2);
+            }
+            stamps[size++] = stamp;
+        }
+
+        /**
+         * Finds the first position at or after {@code from} holding a stamp no smaller than the given one,
+         * galloping ahead so that a walk over increasing stamps stays cheap.
+         */
+        int seek(int from, long stamp) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && stamps[high] < stamp) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(stamps, low, Math.min(high + 1, size), stamp);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+
+    /**
+     * Returns whether the index is in use, i.e. it has stayed within its memory limit.
+     *
+     * @return True if lookups are answered by the index.
+     */
+    boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Returns whether a substring can be looked up in the index.
+     * Substrings shorter than a trigram have to be found by a scan.
+     *
+     * @param keyword The substring to look up.
+     * @return True if {@link #find} can answer the query.
+     */
+    boolean canFind(String keyword) {
+        return isEnabled && keyword.length() >= GRAM;
+    }
+
+    /**
+     * Sets the memory limit, disabling the index right away if it is already over it.
+     *
+     * @param maxBytes The maximum estimated size of the index in bytes.
+     */
+    void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        enforceLimit();
+    }
+
+    /**
+     * Returns an estimate of the memory used by the index.
+     *
+     * @return The estimated size in bytes.
+     */
+    long estimatedBytes() {
+        return entries * POSTING_ENTRY_BYTES
+                + (long) postings.size() * POSTING_OVERHEAD_BYTES
+                + (long) tasksByStamp.size() * TASK_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Indexes a task that was appended to the list.
+     *
+     * @param task The added task.
+     */
+    void add(Task task) {
+        if (!isEnabled) {
+            return;
+        }
+        long stamp = nextStamp++;
+        stamps.put(task, stamp);
+        tasksByStamp.put(stamp, task);
+
+        long[] grams = grams(task.getDescription());
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new Posting()).add(stamp);
+        }
+        entries += grams.length;
+        enforceLimit();
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The removed task.
+     */
+    void remove(Task task) {
+        if (!isEnabled) {
+            return;
+        }
+        Long stamp = stamps.remove(task);
+        if (stamp == null) {
+            return;
+        }
+        tasksByStamp.remove(stamp);
+        deadTasks++;
+        if (deadTasks > MIN_PURGE_SIZE && deadTasks > tasksByStamp.size()) {
+            purge();
+        }
+    }
+
+    /**
+     * Returns the tasks whose description contains the keyword, in list order.
+     *
+     * @param keyword The substring to search for, at least a trigram long.
+     * @return The matching tasks.
+     */
+    List<Task> find(String keyword) {
+        assert canFind(keyword) : "keyword must be indexable";
+        long[] grams = grams(keyword);
+        List<Posting> lists = new ArrayList<>(grams.length);
+        for (long gram : grams) {
+            Posting posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+
+        Posting smallest = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < smallest.size; i++) {
+            long stamp = smallest.stamps[i];
+            if (!isInAll(lists, cursors, stamp)) {
+                continue;
+            }
+            Task task = tasksByStamp.get(stamp);
+            if (task != null && task.getDescription().contains(keyword)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns whether every other posting list contains the stamp, moving each list's cursor up to it.
+     */
+    private static boolean isInAll(List<Posting> lists, int[] cursors, long stamp) {
+        for (int j = 1; j < lists.size(); j++) {
+            Posting posting = lists.get(j);
+            cursors[j] = posting.seek(cursors[j], stamp);
+            if (cursors[j] >= posting.size || posting.stamps[cursors[j]] != stamp) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drops the stamps of removed tasks from every posting list.
+     */
+    private void purge() {
+        entries = 0;
+        postings.values().removeIf(posting -> {
+            int kept = 0;
+            for (int i = 0; i < posting.size; i++) {
+                if (tasksByStamp.containsKey(posting.stamps[i])) {
+                    posting.stamps[kept++] = posting.stamps[i];
+                }
+            }
+            posting.size = kept;
+            posting.stamps = Arrays.copyOf(posting.stamps, Math.max(kept, 2));
+            entries += kept;
+            return kept == 0;
+        });
+        deadTasks = 0;
+    }
+
+    private void enforceLimit() {
+        if (isEnabled && estimatedBytes() > maxBytes) {
+            isEnabled = false;
+            postings.clear();
+            stamps.clear();
+            tasksByStamp.clear();
+            entries = 0;
+            deadTasks = 0;
+        }
+    }
+
+    /**
+     * Returns the distinct trigrams of a string, each packed into a long.
+     */
+    private static long[] grams(String s) {
+        if (s.length() < GRAM) {
+            return new long[0];
+        }
+        long[] grams = new long[s.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+}
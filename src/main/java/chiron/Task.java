@@ -1,12 +1,16 @@
 package chiron;
 
+import java.util.Objects;
+
 /**
  * Represents a generic task.
  * A task has a description and a completion status.
+ * Two tasks are equal if they are of the same type with the same description and dates;
+ * the completion status does not take part.
  */
 public abstract class Task {
     private final String description;
-    private boolean isDone;
+    private volatile boolean isDone;
 
     /**
      * Constructs a task with the given description.
@@ -79,6 +83,22 @@ public abstract class Task {
      */
     public abstract String toSaveString();
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        return description.equals(((Task) other).description);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), description);
+    }
+
     @Override
     public String toString() {
         return typeIcon() + "[" + statusIcon() + "] " + description;
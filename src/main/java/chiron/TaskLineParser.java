@@ -0,0 +1,177 @@
+package chiron;
+
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Parses lines of the storage file into tasks without regular expressions.
+ * Format: T | 0/1 | desc
+ * D | 0/1 | desc | yyyy-MM-dd [HHmm]
+ * E | 0/1 | desc | yyyy-MM-dd [HHmm] | yyyy-MM-dd [HHmm]
+ *
+ * <p>Fields are found with a single pass over the line, and well-formed dates are
+ * read digit by digit. Anything unusual falls back to {@link Parser#parseDateTime},
+ * so the result is always the same as splitting on {@code \s*\|\s*}.
+ * An instance reuses its field buffer and must not be shared between threads.
+ */
+class TaskLineParser {
+    private static final int MAX_FIELDS = 5;
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 15;
+
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+
+    /**
+     * Parses a line from the storage file into a Task object.
+     *
+     * @param line The line string to parse.
+     * @return The parsed Task, or null if parsing fails.
+     */
+    Task parse(String line) {
+        int fields = split(line);
+        if (fields < 3 || ends[0] - starts[0] != 1) {
+            return null;
+        }
+
+        boolean done = ends[1] - starts[1] == 1 && line.charAt(starts[1]) == '1';
+        String description = line.substring(starts[2], ends[2]);
+
+        Task t;
+        switch (line.charAt(starts[0])) {
+            case 'T':
+                t = new Todo(description);
+                break;
+            case 'D':
+                if (fields < 4) {
+                    return null;
+                }
+                long by = parseDateTime(line, starts[3], ends[3], hasTime(line, 3));
+                if (by == PackedTime.INVALID) {
+                    return null;
+                }
+                t = new Deadline(description, by);
+                break;
+            case 'E':
+                if (fields < 5) {
+                    return null;
+                }
+                long from = parseDateTime(line, starts[3], ends[3], hasTime(line, 3));
+                long to = parseDateTime(line, starts[4], ends[4], hasTime(line, 4));
+                if (from == PackedTime.INVALID || to == PackedTime.INVALID) {
+                    return null;
+                }
+                t = new Event(description, from, to);
+                break;
+            default:
+                return null;
+        }
+
+        t.setDone(done);
+        return t;
+    }
+
+    /**
+     * Records the trimmed bounds of the first fields of a line.
+     * Trailing empty fields are not counted, matching {@link String#split}.
+     *
+     * @param line The line to split.
+     * @return The number of fields, up to the last non-empty one.
+     */
+    private int split(String line) {
+        int length = line.length();
+        int field = 0;
+        int count = 0;
+        int start = 0;
+        while (true) {
+            int bar = line.indexOf('|', start);
+            int end = bar < 0 ? length : bar;
+
+            int s = start;
+            int e = end;
+            while (s < e && line.charAt(s) <= ' ') {
+                s++;
+            }
+            while (e > s && line.charAt(e - 1) <= ' ') {
+                e--;
+            }
+            if (field < MAX_FIELDS) {
+                starts[field] = s;
+                ends[field] = e;
+            }
+            field++;
+            if (e > s) {
+                count = field;
+            }
+
+            if (bar < 0) {
+                return count;
+            }
+            start = bar + 1;
+        }
+    }
+
+    /**
+     * Returns whether a date field carries a time, which is the case whenever it contains a space.
+     */
+    private boolean hasTime(String line, int field) {
+        for (int i = starts[field]; i < ends[field]; i++) {
+            if (line.charAt(i) == ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a stored date/time, reading the fixed-width forms "yyyy-MM-dd" and
+     * "yyyy-MM-dd HHmm" directly and deferring everything else to the Parser.
+     *
+     * @param s       The string containing the date/time.
+     * @param start   The start of the date/time (inclusive).
+     * @param end     The end of the date/time (exclusive).
+     * @param hasTime Whether the date/time is marked as having a time of day.
+     * @return The parsed date/time as a {@link PackedTime}, or {@link PackedTime#INVALID} if it is invalid.
+     */
+    static long parseDateTime(String s, int start, int end, boolean hasTime) {
+        int length = end - start;
+        if ((length == DATE_LENGTH || length == DATE_TIME_LENGTH)
+                && s.charAt(start + 4) == '-' && s.charAt(start + 7) == '-') {
+            int year = digits(s, start, 4);
+            int month = digits(s, start + 5, 2);
+            int day = digits(s, start + 8, 2);
+            int hour = 0;
+            int minute = 0;
+            boolean isValid = year >= 1 && month >= 1 && month <= 12 && day >= 1
+                    && day <= Month.of(month).length(Year.isLeap(year));
+            if (length == DATE_TIME_LENGTH) {
+                hour = digits(s, start + 11, 2);
+                minute = digits(s, start + 13, 2);
+                isValid &= s.charAt(start + 10) == ' ' && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59;
+            }
+            if (isValid) {
+                return PackedTime.of(year, month, day, hour, minute, hasTime);
+            }
+        }
+
+        Parser.ParsedDateTime parsed = Parser.parseDateTime(s.substring(start, end));
+        return parsed == null ? PackedTime.INVALID : PackedTime.pack(parsed.value(), hasTime);
+    }
+
+    /**
+     * Reads a run of decimal digits.
+     *
+     * @return The value of the digits, or -1 if any character is not a digit.
+     */
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -1,20 +1,84 @@
 package chiron;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 /**
  * Represents a list of tasks.
  * Provides methods to add, remove, retrieve, and search for tasks.
+ * A keyword index and a substring index over the task descriptions, a time index over the
+ * dates of deadlines and events, and an interval tree over the events are kept in sync with the list.
+ *
+ * <p>A TaskList can be shared between threads. Every method is linearizable: it takes effect at
+ * a single point in time between its call and its return, and every later call on any thread
+ * sees its effect. Changes (adds, removes and marking) take the write lock, so they happen one
+ * at a time, and a method given an index checks it against the same list it uses the index with.
+ *
+ * <p>The tasks themselves are kept in an immutable {@link SegmentedList}, which every add or
+ * remove replaces with a new one sharing all but one of its segments. {@link #size()},
+ * {@link #get}, {@link #snapshot()} and the {@link #asUnmodifiableList() view} read the latest
+ * published list without taking any lock. Searches take the read lock on the indexes, so they
+ * run in parallel with each other and only wait while a change is in progress.
+ *
+ * <p>The read lock on the indexes is deliberate. The keyword, substring, time and interval
+ * indexes are hash and tree maps changed in place. Publishing an immutable copy of them after
+ * each change would cost O(n) per change, the same cost the segmented list removed for the
+ * tasks. Persistent versions of all four would make every change slower and allocate far more,
+ * to save readers an uncontended lock.
+ *
+ * <p>A sequence of calls is not atomic. Callers that need several calls to act as one, such
+ * as a mutation followed by its journal record, must serialize them themselves.
+ *
+ * <p>A {@link #compact compact} list keeps its tasks in a columnar {@link TaskStore} instead, at
+ * well under half the memory, and keeps no indexes, since they would hold on to every task object.
+ * Every method then takes the lock. Searches scan the list and only hold on to their matches, an
+ * add scans the list for an equal task, and a snapshot copies the columns the first time it is
+ * taken after a change. Tasks are created as they are read, so changes to a returned task are
+ * not kept; marking goes through {@link #setDone}, as it does for every list.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private final List<Task> view = new View();
+    private final Map<Task, Integer> counts = new HashMap<>();
+    private final KeywordIndex keywords = new KeywordIndex();
+    private final SubstringIndex substrings = new SubstringIndex();
+    private final TimeIndex times = new TimeIndex();
+    private final IntervalIndex events = new IntervalIndex();
+    private final Lock readLock;
+    private final Lock writeLock;
+    private final TaskStore store;
+    private volatile SegmentedList<Task> tasks;
+    private volatile List<Task> storeSnapshot;
+
+    /**
+     * Two events whose times overlap.
+     *
+     * @param first  The event that starts first, or was added first if both start together.
+     * @param second The other event.
+     */
+    public record Conflict(Event first, Event second) {
+    }
+
+    /**
+     * The first overlapping pairs of events found, and how many there are in all.
+     *
+     * @param pairs The pairs found, up to the limit asked for.
+     * @param count The number of overlapping pairs, including those past the limit.
+     */
+    public record ConflictReport(List<Conflict> pairs, long count) {
+    }
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(List.of());
     }
 
     /**
@@ -23,7 +87,39 @@ public class TaskList {
      * @param loaded The list of tasks to initialize with.
      */
     public TaskList(List<Task> loaded) {
-        this.tasks = new ArrayList<>(loaded);
+        this(loaded, false);
+    }
+
+    private TaskList(List<Task> loaded, boolean isCompact) {
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+        if (isCompact) {
+            this.store = TaskStore.of(loaded);
+            this.tasks = SegmentedList.of(List.of());
+            return;
+        }
+        this.store = null;
+        this.tasks = SegmentedList.of(loaded);
+        for (Task task : tasks) {
+            // Files saved before tasks had value equality may hold duplicates; they are kept as they are
+            counts.merge(task, 1, Integer::sum);
+            keywords.add(task);
+            substrings.add(task);
+            times.add(task);
+            events.add(task);
+        }
+    }
+
+    /**
+     * Constructs a compact TaskList, which keeps its tasks in columns rather than as task objects
+     * and has no indexes. It trades the speed of searches and adds for memory, for very long lists.
+     *
+     * @param loaded The list of tasks to initialize with.
+     * @return The compact list.
+     */
+    public static TaskList compact(List<Task> loaded) {
+        return new TaskList(loaded, true);
     }
 
     /**
@@ -32,7 +128,15 @@ public class TaskList {
      * @return The size of the list.
      */
     public int size() {
-        return tasks.size();
+        if (store == null) {
+            return tasks.size();
+        }
+        readLock.lock();
+        try {
+            return store.size();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -40,22 +144,50 @@ public class TaskList {
      *
      * @param index The zero-based index of the task to retrieve.
      * @return The Task at the specified index.
+     * @throws ChironException If there is no task at the index.
      */
-    public Task get(int index) {
-        assert index >= 0 && index < tasks.size() : "Task index out of bounds";
-        return tasks.get(index);
+    public Task get(int index) throws ChironException {
+        if (store != null) {
+            readLock.lock();
+            try {
+                checkIndex(store.size(), index);
+                return store.get(index);
+            } finally {
+                readLock.unlock();
+            }
+        }
+        // One read of the published list, so the index is checked against the list it is used with
+        SegmentedList<Task> current = tasks;
+        checkIndex(current.size(), index);
+        return current.get(index);
     }
 
     /**
-     * Adds a task to the list.
+     * Adds a task to the list, unless an equal task is already in it.
      *
      * @param task The task to add.
+     * @throws ChironException If an equal task already exists.
      */
     public void add(Task task) throws ChironException {
-        if (tasks.stream().anyMatch(t -> t.equals(task))) {
-            throw new ChironException("This task already exists. Focus on what’s new.");
+        writeLock.lock();
+        try {
+            boolean isDuplicate = store == null ? counts.putIfAbsent(task, 1) != null : store.indexOf(task) >= 0;
+            if (isDuplicate) {
+                throw new ChironException("This task already exists. Focus on what’s new.");
+            }
+            if (store != null) {
+                store.add(task);
+                storeSnapshot = null;
+                return;
+            }
+            tasks = tasks.with(task);
+            keywords.add(task);
+            substrings.add(task);
+            times.add(task);
+            events.add(task);
+        } finally {
+            writeLock.unlock();
         }
-        tasks.add(task);
     }
 
     /**
@@ -63,40 +195,302 @@ public class TaskList {
      *
      * @param index The zero-based index of the task to remove.
      * @return The removed Task.
+     * @throws ChironException If there is no task at the index.
      */
-    public Task remove(int index) {
-        assert index >= 0 && index < tasks.size() : "Task index out of bounds for removal";
-        return tasks.remove(index);
+    public Task remove(int index) throws ChironException {
+        writeLock.lock();
+        try {
+            if (store != null) {
+                checkIndex(store.size(), index);
+                storeSnapshot = null;
+                return store.remove(index);
+            }
+            checkIndex(tasks.size(), index);
+            Task removed = tasks.get(index);
+            tasks = tasks.without(index);
+            counts.computeIfPresent(removed, (t, count) -> count == 1 ? null : count - 1);
+            keywords.remove(removed);
+            substrings.remove(removed);
+            times.remove(removed);
+            events.remove(removed);
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
      * Sets the done status of the task at the specified index.
+     * The indexes only cover descriptions, so they are unaffected, but the task still changes
+     * under the write lock, so that marking is ordered with adds and removes like any other change.
      *
      * @param index The zero-based index of the task.
      * @param done  True to mark as done, false to mark as not done.
+     * @return The task that was marked.
+     * @throws ChironException If there is no task at the index.
      */
-    public void setDone(int index, boolean done) {
-        tasks.get(index).setDone(done);
+    public Task setDone(int index, boolean done) throws ChironException {
+        writeLock.lock();
+        try {
+            if (store != null) {
+                checkIndex(store.size(), index);
+                store.setDone(index, done);
+                storeSnapshot = null;
+                return store.get(index);
+            }
+            checkIndex(tasks.size(), index);
+            Task task = tasks.get(index);
+            task.setDone(done);
+            return task;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Returns an unmodifiable view of the tasks list.
+     * Returns an unmodifiable view of the tasks list. Nothing is copied, so the view reflects
+     * later changes. Each call on the view reads the latest snapshot, so two calls may see different lists.
      *
      * @return An unmodifiable List of tasks.
      */
     public List<Task> asUnmodifiableList() {
-        return List.copyOf(tasks);
+        return view;
+    }
+
+    /**
+     * Returns an immutable list of the tasks as they are now, which can be iterated from any thread.
+     * It is the list itself rather than a copy, so taking it costs nothing however long the list is,
+     * except for a compact list, whose columns are copied once per change.
+     *
+     * @return An immutable List of tasks.
+     */
+    public List<Task> snapshot() {
+        if (store == null) {
+            return tasks;
+        }
+        readLock.lock();
+        try {
+            // Readers may race to take the same copy; either of them will do
+            List<Task> current = storeSnapshot;
+            if (current == null) {
+                current = store.snapshot();
+                storeSnapshot = current;
+            }
+            return current;
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
      * Finds tasks whose description contains the specified keyword.
+     * Keywords of three or more characters are looked up in the substring index.
      *
      * @param keyword The keyword to search for.
      * @return A list of matching tasks.
      */
     public List<Task> find(String keyword) {
-        return tasks.stream()
-                .filter(task -> task.getDescription().contains(keyword))
-                .toList();
+        if (store == null) {
+            readLock.lock();
+            try {
+                if (substrings.canFind(keyword)) {
+                    return substrings.find(keyword);
+                }
+            } finally {
+                readLock.unlock();
+            }
+        }
+        // Without the index, a snapshot is scanned with no lock held
+        return scan(task -> task.getDescription().contains(keyword));
+    }
+
+    /**
+     * Finds tasks whose description contains the specified word, ignoring case.
+     *
+     * @param word The whole word to search for.
+     * @return A list of matching tasks.
+     */
+    public List<Task> findWord(String word) {
+        if (store != null) {
+            return scan(task -> KeywordIndex.hasWord(task.getDescription(), word));
+        }
+        readLock.lock();
+        try {
+            return keywords.findWord(word);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds tasks whose description contains a word starting with the specified prefix, ignoring case.
+     *
+     * @param prefix The prefix to search for.
+     * @return A list of matching tasks.
+     */
+    public List<Task> findPrefix(String prefix) {
+        if (store != null) {
+            return scan(task -> KeywordIndex.hasPrefix(task.getDescription(), prefix));
+        }
+        readLock.lock();
+        try {
+            return keywords.findPrefix(prefix);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds deadlines due and events starting or ending within a range, both ends included.
+     *
+     * @param from The start of the range.
+     * @param to   The end of the range.
+     * @return The matching tasks, ordered by their earliest date in the range.
+     */
+    public List<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        if (store != null) {
+            // The matches are indexed on their own, to put them in date order
+            TimeIndex matches = new TimeIndex();
+            scan(task -> TimeIndex.hasDateBetween(task, from, to)).forEach(matches::add);
+            return matches.findBetween(from, to);
+        }
+        readLock.lock();
+        try {
+            return times.findBetween(from, to);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the next deadlines and events with a date at or after the given time.
+     *
+     * @param from  The earliest date to include.
+     * @param limit The maximum number of tasks to return.
+     * @return The matching tasks, ordered by their earliest date from the given time on.
+     */
+    public List<Task> findUpcoming(LocalDateTime from, int limit) {
+        if (store != null) {
+            TimeIndex matches = new TimeIndex();
+            scan(task -> TimeIndex.hasDateFrom(task, from)).forEach(matches::add);
+            return matches.findFrom(from, limit);
+        }
+        readLock.lock();
+        try {
+            return times.findFrom(from, limit);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the events in the list whose times overlap the given event.
+     * The event itself is left out if it is in the list.
+     *
+     * @param event The event to check.
+     * @return The overlapping events, ordered by start time.
+     */
+    public List<Event> findOverlapping(Event event) {
+        if (store != null) {
+            // Stored events are created afresh, so the event itself is told apart by equality
+            IntervalIndex matches = new IntervalIndex();
+            scan(task -> task instanceof Event other && IntervalIndex.overlaps(event, other)
+                    && !other.equals(event)).forEach(matches::add);
+            return matches.findOverlapping(event);
+        }
+        readLock.lock();
+        try {
+            return events.findOverlapping(event);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the pairs of events in the list whose times overlap, keeping at most the given number.
+     *
+     * @param limit The maximum number of pairs to return; the rest are only counted.
+     * @return The first overlapping pairs, ordered by the start of their first event, and the number of pairs.
+     */
+    public ConflictReport findConflicts(int limit) {
+        if (store != null) {
+            IntervalIndex all = new IntervalIndex();
+            scan(task -> task instanceof Event).forEach(all::add);
+            return all.findConflicts(limit);
+        }
+        readLock.lock();
+        try {
+            return events.findConflicts(limit);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the memory limit of the substring index. Past the limit, the index is
+     * dropped and {@link #find} falls back to scanning the list.
+     *
+     * @param maxBytes The maximum estimated size of the index in bytes.
+     */
+    public void setSubstringIndexLimit(long maxBytes) {
+        writeLock.lock();
+        try {
+            substrings.setMaxBytes(maxBytes);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated memory used by the substring index.
+     *
+     * @return The estimated size in bytes, or 0 if the index has been disabled.
+     */
+    public long substringIndexBytes() {
+        readLock.lock();
+        try {
+            return substrings.estimatedBytes();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Scans a snapshot of the list for the tasks that match, in list order.
+     *
+     * @param filter The condition the tasks must meet.
+     * @return The matching tasks.
+     */
+    private List<Task> scan(Predicate<Task> filter) {
+        return snapshot().stream().filter(filter).toList();
+    }
+
+    private static void checkIndex(int size, int index) throws ChironException {
+        if (index < 0 || index >= size) {
+            throw new ChironException("That task number doesn't exist.");
+        }
+    }
+
+    /**
+     * The live view of the list, reading the latest snapshot on every call.
+     */
+    private class View extends AbstractList<Task> {
+        @Override
+        public Task get(int index) {
+            if (store == null) {
+                return tasks.get(index);
+            }
+            readLock.lock();
+            try {
+                return store.get(index);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            return TaskList.this.size();
+        }
     }
 }
@@ -0,0 +1,309 @@
+package chiron;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A compact, column-oriented store of tasks, for lists too large to keep as task objects.
+ *
+ * <p>Instead of one object per task, with its headers, pointers and date objects, the store
+ * keeps parallel arrays: a type byte, a bit set of done flags, two {@link PackedTime} longs
+ * for the dates, and the offset and length of the description in a shared arena of UTF-8 bytes.
+ * A task costs about 25 bytes plus its text.
+ * Task objects are only created by {@link #get}, and are copies: marking a task is done
+ * through {@link #setDone}.
+ *
+ * <p>Removing a task shifts the arrays, as an ArrayList does. Its description is left in the
+ * arena until the unused bytes outweigh the used ones, when the arena is compacted.
+ * The store is not thread-safe.
+ *
+ * <p>A {@link TaskList#compact compact} TaskList keeps its tasks here and has no indexes, which
+ * would hold on to task objects and so keep every task alive.
+ */
+class TaskStore {
+    private static final byte KIND_TODO = 0;
+    private static final byte KIND_DEADLINE = 1;
+    private static final byte KIND_EVENT = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_ARENA_SIZE = Integer.MAX_VALUE - 8;
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private long[] firstDates = new long[INITIAL_CAPACITY];
+    private long[] secondDates = new long[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private final BitSet done = new BitSet();
+    private byte[] arena = new byte[INITIAL_CAPACITY * 16];
+    private int arenaSize;
+    private int arenaUsed;
+    private int size;
+
+    /**
+     * Creates a store holding the given tasks, in order.
+     *
+     * @param tasks The tasks to store.
+     * @return The store.
+     */
+    static TaskStore of(List<Task> tasks) {
+        TaskStore store = new TaskStore();
+        for (Task task : tasks) {
+            store.add(task);
+        }
+        return store;
+    }
+
+    /**
+     * Returns the number of tasks in the store.
+     *
+     * @return The size of the store.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a task.
+     *
+     * @param task The task to add.
+     */
+    void add(Task task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (size == kinds.length) {
+            grow();
+        }
+        ensureArena(description.length);
+
+        kinds[size] = kindOf(task);
+        firstDates[size] = firstDateOf(task);
+        secondDates[size] = task instanceof Event event ? event.packedTo() : 0;
+        offsets[size] = arenaSize;
+        lengths[size] = description.length;
+        done.set(size, task.isDone());
+        System.arraycopy(description, 0, arena, arenaSize, description.length);
+        arenaSize += description.length;
+        arenaUsed += description.length;
+        size++;
+    }
+
+    /**
+     * Creates the task at the given index. Changes to the returned task are not stored.
+     *
+     * @param index The zero-based index of the task.
+     * @return A new Task equal to the stored one.
+     * @throws IndexOutOfBoundsException If there is no task at the index.
+     */
+    Task get(int index) {
+        Objects.checkIndex(index, size);
+        String description = new String(arena, offsets[index], lengths[index], StandardCharsets.UTF_8);
+        Task task = switch (kinds[index]) {
+            case KIND_DEADLINE -> new Deadline(description, firstDates[index]);
+            case KIND_EVENT -> new Event(description, firstDates[index], secondDates[index]);
+            default -> new Todo(description);
+        };
+        task.setDone(done.get(index));
+        return task;
+    }
+
+    /**
+     * Finds a task equal to the given one, comparing the stored columns without creating tasks.
+     *
+     * @param task The task to look for.
+     * @return The index of the first equal task, or -1 if there is none.
+     */
+    int indexOf(Task task) {
+        byte kind = kindOf(task);
+        long first = firstDateOf(task);
+        long second = task instanceof Event event ? event.packedTo() : 0;
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == kind && firstDates[i] == first && secondDates[i] == second
+                    && lengths[i] == description.length
+                    && Arrays.equals(arena, offsets[i], offsets[i] + lengths[i], description, 0, description.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the task at the given index is done, without creating it.
+     *
+     * @param index The zero-based index of the task.
+     * @return True if the task is done.
+     * @throws IndexOutOfBoundsException If there is no task at the index.
+     */
+    boolean isDone(int index) {
+        Objects.checkIndex(index, size);
+        return done.get(index);
+    }
+
+    /**
+     * Sets the done status of the task at the given index.
+     *
+     * @param index  The zero-based index of the task.
+     * @param isDone True to mark as done, false to mark as not done.
+     * @throws IndexOutOfBoundsException If there is no task at the index.
+     */
+    void setDone(int index, boolean isDone) {
+        Objects.checkIndex(index, size);
+        done.set(index, isDone);
+    }
+
+    /**
+     * Removes the task at the given index, shifting the later ones down.
+     *
+     * @param index The zero-based index of the task.
+     * @return The removed task.
+     * @throws IndexOutOfBoundsException If there is no task at the index.
+     */
+    Task remove(int index) {
+        Task removed = get(index);
+        int moved = size - index - 1;
+        System.arraycopy(kinds, index + 1, kinds, index, moved);
+        System.arraycopy(firstDates, index + 1, firstDates, index, moved);
+        System.arraycopy(secondDates, index + 1, secondDates, index, moved);
+        System.arraycopy(offsets, index + 1, offsets, index, moved);
+        arenaUsed -= lengths[index];
+        System.arraycopy(lengths, index + 1, lengths, index, moved);
+        // BitSet has no shift, so the done flags after the index are moved down one by one
+        for (int i = done.nextSetBit(index); i >= 0; i = done.nextSetBit(i + 1)) {
+            done.clear(i);
+            if (i > index) {
+                done.set(i - 1);
+            }
+        }
+        size--;
+        if (arenaUsed < arenaSize / 2) {
+            compactArena();
+        }
+        return removed;
+    }
+
+    /**
+     * Creates every task in the store, in order.
+     *
+     * @return A new list of tasks.
+     */
+    List<Task> toList() {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(get(i));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns an immutable list of the tasks as they are now. The columns are copied, which takes
+     * O(n) time but creates no task objects; tasks are created as the list is read.
+     *
+     * @return An immutable List of tasks.
+     */
+    List<Task> snapshot() {
+        TaskStore copy = new TaskStore();
+        copy.kinds = Arrays.copyOf(kinds, size);
+        copy.firstDates = Arrays.copyOf(firstDates, size);
+        copy.secondDates = Arrays.copyOf(secondDates, size);
+        copy.offsets = Arrays.copyOf(offsets, size);
+        copy.lengths = Arrays.copyOf(lengths, size);
+        copy.done.or(done);
+        copy.arena = Arrays.copyOf(arena, arenaSize);
+        copy.arenaSize = arenaSize;
+        copy.arenaUsed = arenaUsed;
+        copy.size = size;
+        return new Snapshot(copy);
+    }
+
+    /**
+     * Returns the memory taken by the arrays of the store, including unused capacity.
+     *
+     * @return The size in bytes, not counting object headers.
+     */
+    long estimatedBytes() {
+        return kinds.length + 8L * firstDates.length + 8L * secondDates.length + 4L * offsets.length
+                + 4L * lengths.length + done.size() / 8 + arena.length;
+    }
+
+    private static byte kindOf(Task task) {
+        if (task instanceof Deadline) {
+            return KIND_DEADLINE;
+        }
+        return task instanceof Event ? KIND_EVENT : KIND_TODO;
+    }
+
+    private static long firstDateOf(Task task) {
+        if (task instanceof Deadline deadline) {
+            return deadline.packedBy();
+        }
+        return task instanceof Event event ? event.packedFrom() : 0;
+    }
+
+    private void grow() {
+        int capacity = kinds.length + (kinds.length >> 1);
+        kinds = Arrays.copyOf(kinds, capacity);
+        firstDates = Arrays.copyOf(firstDates, capacity);
+        secondDates = Arrays.copyOf(secondDates, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+    }
+
+    private void ensureArena(int extra) {
+        if (arenaSize + extra <= arena.length) {
+            return;
+        }
+        if (arenaUsed < arenaSize / 2) {
+            compactArena();
+            if (arenaSize + extra <= arena.length) {
+                return;
+            }
+        }
+        long needed = (long) arenaSize + extra;
+        if (needed > MAX_ARENA_SIZE) {
+            throw new IllegalStateException("Task descriptions exceed 2 GiB");
+        }
+        long capacity = Math.max(needed, (long) arena.length + (arena.length >> 1));
+        arena = Arrays.copyOf(arena, (int) Math.min(capacity, MAX_ARENA_SIZE));
+    }
+
+    /**
+     * Moves the descriptions of the remaining tasks together, dropping those of removed tasks.
+     */
+    private void compactArena() {
+        byte[] compacted = new byte[Math.max(arenaUsed, INITIAL_CAPACITY)];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, offsets[i], compacted, position, lengths[i]);
+            offsets[i] = position;
+            position += lengths[i];
+        }
+        arena = compacted;
+        arenaSize = position;
+    }
+
+    /**
+     * A read-only list over a copy of the store that nothing else refers to.
+     */
+    private static final class Snapshot extends AbstractList<Task> implements RandomAccess {
+        private final TaskStore store;
+
+        Snapshot(TaskStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public Task get(int index) {
+            return store.get(index);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package chiron;
+
+import javafx.collections.FXCollections;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+/**
+ * The tasks shown by the last list or find command, as a virtualized table with one row per task.
+ * Rows have a fixed height and are reused as the user scrolls, so only the visible ones are laid out.
+ */
+public class TaskTable extends ListView<Task> {
+    private static final double ROW_HEIGHT = 26.0;
+
+    /**
+     * Constructs an empty task table.
+     */
+    public TaskTable() {
+        getStyleClass().add("task-table");
+        setFixedCellSize(ROW_HEIGHT);
+        setPlaceholder(new Label("Tasks from list and find show up here."));
+        setCellFactory(view -> new TaskCell());
+    }
+
+    /**
+     * Shows the tasks of a listing and scrolls to the one it focuses on.
+     * The tasks are wrapped rather than copied.
+     *
+     * @param listing The tasks to show.
+     */
+    public void show(Response.Listing listing) {
+        setItems(FXCollections.observableList(listing.tasks()));
+        scrollTo(listing.focus());
+    }
+
+    /**
+     * A row numbering its task by its position in the listing.
+     */
+    private static class TaskCell extends ListCell<Task> {
+        @Override
+        protected void updateItem(Task task, boolean isEmpty) {
+            super.updateItem(task, isEmpty);
+            setText(isEmpty || task == null ? null : (getIndex() + 1) + ". " + task);
+        }
+    }
+}
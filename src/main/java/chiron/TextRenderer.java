@@ -0,0 +1,43 @@
+package chiron;
+
+/**
+ * Renders responses as text, for the console, the chat window or a network client.
+ */
+public class TextRenderer {
+    private static final String LINE = "____________________________________________________________";
+
+    private final boolean isBoxed;
+
+    /**
+     * Constructs a renderer.
+     *
+     * @param isBoxed True to put a horizontal line above and below each response, as the console does.
+     */
+    public TextRenderer(boolean isBoxed) {
+        this.isBoxed = isBoxed;
+    }
+
+    /**
+     * Renders a response, ending every line with a newline.
+     *
+     * @param response The response to render.
+     * @return The text of the response.
+     */
+    public String render(Response response) {
+        Metrics metrics = Metrics.global();
+        long start = metrics.startTimer();
+        StringBuilder text = new StringBuilder();
+        if (isBoxed) {
+            text.append(LINE).append('\n');
+        }
+        for (String line : response.lines()) {
+            text.append(line).append('\n');
+        }
+        if (isBoxed) {
+            text.append(LINE).append('\n');
+        }
+        String rendered = text.toString();
+        metrics.recordRender(response.command(), start);
+        return rendered;
+    }
+}
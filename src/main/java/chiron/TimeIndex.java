@@ -0,0 +1,147 @@
+package chiron;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A sorted index from the dates of tasks to the tasks, for agenda queries.
+ * A deadline is indexed by its due date, an event by both its start and its end; todos have no date.
+ *
+ * <p>Dates are keyed by their minute since the epoch, taken from their {@link PackedTime}, so no
+ * date objects are kept or compared. As in {@link KeywordIndex}, each task gets a stamp when it
+ * is added, and the tasks sharing a date are kept in list order. A query walks only the dates
+ * in its range, so it takes O(log n + k) for k matches. A task with several dates in range is
+ * returned once, at its earliest.
+ */
+class TimeIndex {
+    private final NavigableMap<Long, Map<Long, Task>> byTime = new TreeMap<>();
+    private final Map<Task, Long> stamps = new IdentityHashMap<>();
+    private long nextStamp;
+
+    /**
+     * Indexes a task that was appended to the list. Tasks without a date are ignored.
+     *
+     * @param task The added task.
+     */
+    void add(Task task) {
+        List<Long> times = times(task);
+        if (times.isEmpty()) {
+            return;
+        }
+        long stamp = nextStamp++;
+        stamps.put(task, stamp);
+        for (long time : times) {
+            byTime.computeIfAbsent(time, t -> new LinkedHashMap<>()).put(stamp, task);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The removed task.
+     */
+    void remove(Task task) {
+        Long stamp = stamps.remove(task);
+        if (stamp == null) {
+            return;
+        }
+        for (long time : times(task)) {
+            Map<Long, Task> tasks = byTime.get(time);
+            if (tasks != null) {
+                tasks.remove(stamp);
+                if (tasks.isEmpty()) {
+                    byTime.remove(time);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks with a date in the given range, both ends included, in date order.
+     *
+     * @param from The start of the range.
+     * @param to   The end of the range.
+     * @return The matching tasks.
+     */
+    List<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            return List.of();
+        }
+        return collect(byTime.subMap(minutes(from), true, minutes(to), true), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the first tasks with a date at or after the given time, in date order.
+     *
+     * @param from  The earliest date to include.
+     * @param limit The maximum number of tasks to return.
+     * @return The matching tasks.
+     */
+    List<Task> findFrom(LocalDateTime from, int limit) {
+        return collect(byTime.tailMap(minutes(from), true), limit);
+    }
+
+    /**
+     * Returns whether a task has a date in the given range, as {@link #findBetween} would find it.
+     *
+     * @param task The task to check.
+     * @param from The start of the range.
+     * @param to   The end of the range.
+     * @return True if the task has a date in the range.
+     */
+    static boolean hasDateBetween(Task task, LocalDateTime from, LocalDateTime to) {
+        long start = minutes(from);
+        long end = minutes(to);
+        return times(task).stream().anyMatch(time -> start <= time && time <= end);
+    }
+
+    /**
+     * Returns whether a task has a date at or after the given time, as {@link #findFrom} would find it.
+     *
+     * @param task The task to check.
+     * @param from The earliest date to include.
+     * @return True if the task has a date at or after the time.
+     */
+    static boolean hasDateFrom(Task task, LocalDateTime from) {
+        long start = minutes(from);
+        return times(task).stream().anyMatch(time -> time >= start);
+    }
+
+    private static List<Task> collect(NavigableMap<Long, Map<Long, Task>> range, int limit) {
+        Map<Long, Task> matches = new LinkedHashMap<>();
+        for (Map<Long, Task> tasks : range.values()) {
+            for (Map.Entry<Long, Task> entry : tasks.entrySet()) {
+                if (matches.size() == limit) {
+                    return new ArrayList<>(matches.values());
+                }
+                matches.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private static List<Long> times(Task task) {
+        if (task instanceof Deadline deadline) {
+            return List.of(PackedTime.epochMinutes(deadline.packedBy()));
+        }
+        if (task instanceof Event event) {
+            long from = PackedTime.epochMinutes(event.packedFrom());
+            long to = PackedTime.epochMinutes(event.packedTo());
+            return from == to ? List.of(from) : List.of(from, to);
+        }
+        return List.of();
+    }
+
+    /**
+     * Rounds a query bound down to its minute, the precision of task dates.
+     */
+    private static long minutes(LocalDateTime dt) {
+        return PackedTime.epochMinutes(PackedTime.pack(dt, true));
+    }
+}
@@ -23,20 +23,19 @@ public class TodoCommand extends Command {
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return False (continue running).
+     * @return The reply to show.
      * @throws ChironException If the description is empty or saving fails.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
         if (desc.isEmpty()) {
             throw new ChironException("A todo with no description? Bold. Not helpful.");
         }
 
         Task t = new Todo(desc);
         tasks.add(t);
-        storage.save(tasks);
+        storage.recordAdd(tasks, t);
 
-        ui.showAdded(t, tasks.size(), "Noted. Small steps still move you forward.");
-        return false;
+        return ui.showAdded(t, tasks.size(), "Noted. Small steps still move you forward.");
     }
 }
@@ -1,175 +1,263 @@
 package chiron;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Handles user interface interactions.
- * Displays messages, errors, and task lists to the user.
+ * Puts Chiron's replies into words.
+ * Every method builds a {@link Response} rather than printing it, so a Ui holds no state and
+ * can be shared between threads; showing the response is up to a renderer such as {@link TextRenderer}.
  */
 public class Ui {
-    private static final String LINE = "____________________________________________________________";
     private static final String GREET_1 = "Chiron: I’m here.";
     private static final String GREET_2 = "Wise enough to guide. Young enough to grow with you.";
     private static final String GREET_3 = "Tell me - what are we working on today?";
 
     private static final String BYE = "Chiron: Rest well. Progress favors the consistent — not the rushed.";
 
+    static final int MAX_CONFLICTS_SHOWN = 100;
+
     private static final String HELP = "Try:\n"
             + "  todo <desc>\n"
             + "  deadline <desc> /by <yyyy-mm-dd> [HHmm]\n"
             + "  event <desc> /from <yyyy-mm-dd> [HHmm] /to <yyyy-mm-dd> [HHmm]\n"
-            + "  list\n"
+            + "  list [--page <n> | <from>-<to>]\n"
+            + "  find [/word | /prefix] <keyword>\n"
+            + "  due <yyyy-mm-dd>\n"
+            + "  between <yyyy-mm-dd> [HHmm] <yyyy-mm-dd> [HHmm]\n"
+            + "  upcoming [n]\n"
+            + "  conflicts\n"
             + "  mark <n>\n"
             + "  unmark <n>\n"
             + "  delete <n>\n"
+            + "  batch, then one command per line, then end\n"
+            + "  import <file>\n"
+            + "  stats\n"
             + "  bye";
 
-    private StringBuilder buffer = new StringBuilder();
-
     /**
-     * Retrieves the current response buffer and clears it.
+     * Builds a message to the user.
      *
-     * @return The buffered response string.
+     * @param messages The lines of the message.
+     * @return The response.
      */
-    public String getResponse() {
-        String response = buffer.toString();
-        buffer.setLength(0);
-        return response;
+    public Response showToUser(String... messages) {
+        return Response.of(messages);
     }
 
     /**
-     * Appends a message to the buffer and optionally prints it.
+     * Builds the welcome message to the user.
      *
-     * @param message The message to append.
+     * @return The response.
      */
-    private void println(String message) {
-        System.out.println(message);
-        buffer.append(message).append("\n");
+    public Response showGreeting() {
+        return showToUser(GREET_1, GREET_2, GREET_3);
     }
 
     /**
-     * Displays a message to the user, wrapped in horizontal lines.
+     * Builds the exit message to the user, which ends the conversation.
      *
-     * @param messages The messages to display.
+     * @return The response.
      */
-    public void showToUser(String... messages) {
-        line();
-        for (String msg : messages) {
-            println(msg);
-        }
-        line();
+    public Response showBye() {
+        return new Response(List.of(BYE), null, true);
     }
 
     /**
-     * Displays the welcome message to the user.
-     */
-    public void showGreeting() {
-        showToUser(GREET_1, GREET_2, GREET_3);
-    }
-
-    /**
-     * Displays the exit message to the user.
-     */
-    public void showBye() {
-        showToUser(BYE);
-    }
-
-    /**
-     * Displays the help message with available commands.
+     * Builds the help message with available commands.
+     *
+     * @return The response.
      */
-    public void showHelp() {
-        showToUser(HELP);
+    public Response showHelp() {
+        return showToUser(HELP);
     }
 
     /**
-     * Displays an error message to the user.
+     * Builds an error message to the user.
      *
      * @param message The error message to display.
+     * @return The response.
      */
-    public void showError(String message) {
-        showToUser("Chiron: " + message);
+    public Response showError(String message) {
+        return showToUser("Chiron: " + message);
     }
 
     /**
-     * Displays the list of tasks.
+     * Builds a window of the list of tasks, numbered by their position in the whole list.
+     * A footer tells the user where they are when the window does not cover the whole list.
      *
-     * @param tasks The TaskList containing tasks to display.
+     * @param tasks An unchanging copy of the whole list, such as {@link TaskList#snapshot()}.
+     * @param from  The zero-based index of the first task to display.
+     * @param to    The zero-based index after the last task to display.
+     * @return The response, listing the whole list focused on the window.
      */
-    public void showList(TaskList tasks) {
-        line();
-        if (tasks.size() == 0) {
-            println("Chiron: Your list is empty. Either you’re prepared - or you haven’t begun.");
+    public Response showList(List<Task> tasks, int from, int to) {
+        assert 0 <= from && from <= to && to <= tasks.size() : "List window out of bounds";
+        List<String> lines = new ArrayList<>();
+        if (tasks.isEmpty()) {
+            lines.add("Chiron: Your list is empty. Either you’re prepared - or you haven’t begun.");
         } else {
-            printTasks(tasks.asUnmodifiableList(), "Chiron: Here’s what you owe yourself:");
+            addTasks(lines, tasks.subList(from, to), from + 1, "Chiron: Here’s what you owe yourself:");
+            if (to - from < tasks.size()) {
+                lines.add("Showing " + (from + 1) + "-" + to + " of " + tasks.size()
+                        + ". See more with list --page <n> or list <from>-<to>.");
+            }
         }
-        line();
+        return new Response(lines, new Response.Listing(tasks, from), false);
     }
 
     /**
-     * Displays a message confirming a task has been added.
+     * Builds a message confirming a task has been added.
      *
      * @param task    The task that was added.
      * @param size    The new total number of tasks.
      * @param message The confirmation message.
+     * @return The response.
+     */
+    public Response showAdded(Task task, int size, String message) {
+        return showToUser("Chiron: " + message, "  " + size + ". " + task, "Now you have " + size + " task(s).");
+    }
+
+    /**
+     * Adds a warning about overlapping events to the confirmation of a new event.
+     *
+     * @param added       The confirmation of the new event.
+     * @param overlapping The events the new one overlaps.
+     * @return The response, with the warning after the confirmation.
      */
-    public void showAdded(Task task, int size, String message) {
-        showToUser("Chiron: " + message, "  " + size + ". " + task, "Now you have " + size + " task(s).");
+    public Response showOverlapWarning(Response added, List<Event> overlapping) {
+        List<String> lines = new ArrayList<>(added.lines());
+        lines.add("Careful. This overlaps with:");
+        for (Event event : overlapping) {
+            lines.add("  " + event);
+        }
+        return new Response(lines, added.listing(), added.isExit());
     }
 
     /**
-     * Displays a message confirming a task has been deleted.
+     * Builds a message confirming a task has been deleted.
      *
      * @param removed The task that was removed.
      * @param size    The new total number of tasks.
+     * @return The response.
      */
-    public void showDeleted(Task removed, int size) {
-        showToUser("Chiron: Letting go can be a form of clarity.", "  " + removed,
+    public Response showDeleted(Task removed, int size) {
+        return showToUser("Chiron: Letting go can be a form of clarity.", "  " + removed,
                 "Now you have " + size + " task(s).");
     }
 
     /**
-     * Displays a message confirming a task status change (mark/unmark).
+     * Builds a message confirming a task status change (mark/unmark).
      *
      * @param task   The task that was modified.
      * @param index  The index of the task.
      * @param isDone True if marked done, false if unmarked.
+     * @return The response.
      */
-    public void showMarked(Task task, int index, boolean isDone) {
+    public Response showMarked(Task task, int index, boolean isDone) {
         String msg = isDone ? "Chiron: Well done. Momentum is built like this."
                 : "Chiron: Then it isn’t finished yet. That’s alright.";
-        showToUser(msg, "  " + index + ". " + task);
+        return showToUser(msg, "  " + index + ". " + task);
     }
 
     /**
-     * Displays the results of a find operation.
+     * Builds the results of a find operation.
      *
      * @param matches The list of tasks matching the keyword.
+     * @return The response, listing the matches.
      */
-    public void showFindResult(java.util.List<Task> matches) {
-        line();
+    public Response showFindResult(List<Task> matches) {
+        List<String> lines = new ArrayList<>();
         if (matches.isEmpty()) {
-            println("Chiron: I found nothing. Perhaps it never existed.");
+            lines.add("Chiron: I found nothing. Perhaps it never existed.");
         } else {
-            printTasks(matches, "Chiron: Here are the matching tasks in your list:");
+            addTasks(lines, matches, 1, "Chiron: Here are the matching tasks in your list:");
         }
-        line();
+        return new Response(lines, new Response.Listing(List.copyOf(matches), 0), false);
     }
 
     /**
-     * Prints a separator line.
+     * Builds the results of an agenda query such as due, between or upcoming.
+     *
+     * @param tasks The dated tasks found, in date order.
+     * @return The response, listing the tasks.
+     */
+    public Response showAgenda(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        if (tasks.isEmpty()) {
+            lines.add("Chiron: Nothing on the calendar. Enjoy the quiet while it lasts.");
+        } else {
+            addTasks(lines, tasks, 1, "Chiron: Here is what the calendar holds, soonest first:");
+        }
+        return new Response(lines, new Response.Listing(List.copyOf(tasks), 0), false);
+    }
+
+    /**
+     * Builds the list of overlapping events, showing at most a fixed number of pairs.
+     *
+     * @param report The first overlapping pairs of events and how many there are in all.
+     * @return The response.
+     */
+    public Response showConflicts(TaskList.ConflictReport report) {
+        List<TaskList.Conflict> conflicts = report.pairs();
+        List<String> lines = new ArrayList<>();
+        if (report.count() == 0) {
+            lines.add("Chiron: No clashes. Your time is your own.");
+            return new Response(lines, null, false);
+        }
+
+        lines.add("Chiron: You can’t be in two places at once. These overlap:");
+        int shown = Math.min(conflicts.size(), MAX_CONFLICTS_SHOWN);
+        for (int i = 0; i < shown; i++) {
+            TaskList.Conflict conflict = conflicts.get(i);
+            lines.add((i + 1) + ". " + conflict.first());
+            lines.add("   and " + conflict.second());
+        }
+        if (shown < report.count()) {
+            lines.add("...and " + (report.count() - shown) + " more.");
+        }
+        return new Response(lines, null, false);
+    }
+
+    /**
+     * Builds the report of the stats command.
+     *
+     * @param report The lines of the report, as described by {@link Metrics}.
+     * @return The response.
+     */
+    public Response showStats(List<String> report) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Chiron: Here is where the time goes.");
+        lines.addAll(report);
+        return new Response(lines, null, false);
+    }
+
+    /**
+     * Builds the summary of a batch of commands.
+     *
+     * @param count  The number of commands in the batch.
+     * @param errors One line per command that failed.
+     * @return The response.
      */
-    public void line() {
-        println(LINE);
+    public Response showBatchResult(int count, List<String> errors) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Chiron: Done. " + (count - errors.size()) + " of " + count + " command(s) went through.");
+        lines.addAll(errors);
+        return new Response(lines, null, false);
     }
 
     /**
-     * Prints a list of tasks with a header.
+     * Adds a list of tasks with a header to the lines of a response.
      *
-     * @param list   The list of tasks to print.
+     * @param lines  The lines to add to.
+     * @param list   The list of tasks to add.
+     * @param first  The number of the first task.
      * @param header The header message.
      */
-    private void printTasks(java.util.List<Task> list, String header) {
-        println(header);
+    private static void addTasks(List<String> lines, List<Task> list, int first, String header) {
+        lines.add(header);
         for (int i = 0; i < list.size(); i++) {
-            println((i + 1) + ". " + list.get(i));
+            lines.add((first + i) + ". " + list.get(i));
         }
     }
 }
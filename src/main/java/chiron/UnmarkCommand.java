@@ -23,20 +23,15 @@ public class UnmarkCommand extends Command {
      * @param tasks   The list of tasks.
      * @param ui      The user interface.
      * @param storage The storage handler.
-     * @return False (continue running).
+     * @return The reply to show.
      * @throws ChironException If the index is invalid or saving fails.
      */
     @Override
-    public boolean execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
         int idx = Parser.parseIndex(arg);
-        if (idx < 1 || idx > tasks.size()) {
-            throw new ChironException("That task number doesn't exist.");
-        }
+        Task task = tasks.setDone(idx - 1, false);
+        storage.recordSetDone(tasks, idx - 1, false);
 
-        tasks.setDone(idx - 1, false);
-        storage.save(tasks);
-
-        ui.showMarked(tasks.get(idx - 1), idx, false);
-        return false;
+        return ui.showMarked(task, idx, false);
     }
 }
@@ -0,0 +1,47 @@
+package chiron;
+
+import java.time.LocalDate;
+
+/**
+ * Represents a command to show the next deadlines and events, from today on.
+ */
+public class UpcomingCommand extends Command {
+    private static final int DEFAULT_COUNT = 10;
+
+    private final String args;
+
+    /**
+     * Constructs an UpcomingCommand.
+     *
+     * @param args The number of tasks to show, or empty for the default of 10.
+     */
+    public UpcomingCommand(String args) {
+        this.args = args.trim();
+    }
+
+    /**
+     * Executes the upcoming command.
+     * Looks up the first deadlines and events dated today or later.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler.
+     * @return The reply to show.
+     * @throws ChironException If the count is not a positive number.
+     */
+    @Override
+    public Response execute(TaskList tasks, Ui ui, Storage storage) throws ChironException {
+        int count = DEFAULT_COUNT;
+        if (!args.isEmpty()) {
+            try {
+                count = Integer.parseInt(args);
+            } catch (NumberFormatException e) {
+                throw new ChironException("That wasn’t a number. Precision matters here.");
+            }
+        }
+        if (count < 1) {
+            throw new ChironException("Show me at least one. Nothing is not a plan.");
+        }
+        return ui.showAgenda(tasks.findUpcoming(LocalDate.now().atStartOfDay(), count));
+    }
+}
@@ -0,0 +1,95 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for batches of commands.
+ */
+public class BatchCommandTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a batch reports failing lines, runs the others and saves them once.
+     */
+    @Test
+    public void execute_mixedLines_errorsReportedRestSaved() throws Exception {
+        // The mutations are saved by a single snapshot, so no journal is left behind
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        TaskList tasks = new TaskList(storage.load());
+
+        Response response = Parser.parse("todo read book\nmark 5\n\ntodo write essay\nmark 1\n")
+                .execute(tasks, new Ui(), storage);
+
+        assertEquals(List.of("Chiron: Done. 3 of 4 command(s) went through.",
+                "Line 2: That task number doesn't exist."), response.lines());
+        assertFalse(Files.exists(tempDir.resolve("chiron.txt.journal")));
+        List<Task> loaded = new Storage(path).load();
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.get(0).isDone());
+        assertEquals("write essay", loaded.get(1).getDescription());
+    }
+
+    /**
+     * Tests that a batch block typed line by line is only released at its end.
+     */
+    @Test
+    public void offer_batchBlock_heldUntilEnd() {
+        // Lines outside a block pass straight through
+        BatchBuffer buffer = new BatchBuffer();
+        assertEquals("list", buffer.offer("list"));
+        assertNull(buffer.offer("batch"));
+        assertNull(buffer.offer("todo a"));
+        assertNull(buffer.offer("todo b"));
+        assertEquals("todo a\ntodo b\n", buffer.offer("end"));
+        assertEquals("end", buffer.offer("end"));
+    }
+
+    /**
+     * Tests that an imported file runs as a batch.
+     */
+    @Test
+    public void execute_importFile_tasksAdded() throws Exception {
+        // A bye in the file must not end the session
+        Path file = tempDir.resolve("chores.txt");
+        Files.write(file, List.of("todo sweep", "bye", "deadline pay rent /by 2026-11-01"));
+        Storage storage = new Storage(tempDir.resolve("chiron.txt").toString());
+        TaskList tasks = new TaskList(storage.load());
+
+        Response response = Parser.parse("import " + file).execute(tasks, new Ui(), storage);
+
+        assertFalse(response.isExit());
+        assertEquals("Line 2: Leaving mid-batch? Finish what you started.", response.lines().get(1));
+        assertEquals(2, tasks.size());
+    }
+
+    /**
+     * Tests that a file importing itself is reported instead of recursing until the stack overflows.
+     */
+    @Test
+    public void execute_selfImport_reportedAsError() throws Exception {
+        // The file's own task is still added once
+        Path file = tempDir.resolve("loop.txt");
+        Files.write(file, List.of("todo once", "import " + file));
+        Storage storage = new Storage(tempDir.resolve("chiron.txt").toString());
+        TaskList tasks = new TaskList(storage.load());
+
+        Response response = Parser.parse("import " + file).execute(tasks, new Ui(), storage);
+
+        assertEquals("Chiron: Done. 1 of 2 command(s) went through.", response.lines().get(0));
+        assertTrue(response.lines().get(1).startsWith("Line 2: "));
+        assertEquals(1, tasks.size());
+    }
+}
@@ -0,0 +1,188 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the ChironServer class, over localhost.
+ */
+public class ChironServerTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A client speaking the server's line protocol.
+     */
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(int port, String user) throws IOException {
+            socket = new Socket("localhost", port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            send("user " + user);
+        }
+
+        String send(String line) throws IOException {
+            out.println(line);
+            StringBuilder reply = new StringBuilder();
+            String received;
+            while ((received = in.readLine()) != null && !received.equals(ChironServer.END_OF_REPLY)) {
+                reply.append(received).append('\n');
+            }
+            return reply.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Tests that users have separate lists, shared by all connections of the same user.
+     */
+    @Test
+    public void send_twoUsers_separateLists() throws Exception {
+        // Alice's task shows up on her second connection but not for Bob, and is saved to her own file
+        try (ChironServer server = new ChironServer(0, tempDir)) {
+            server.start();
+            try (Client alice = new Client(server.getPort(), "alice");
+                    Client bob = new Client(server.getPort(), "bob")) {
+                assertTrue(alice.send("todo read book").contains("Now you have 1 task(s)."));
+                assertTrue(bob.send("list").contains("Your list is empty."));
+
+                try (Client aliceAgain = new Client(server.getPort(), "Alice")) {
+                    assertTrue(aliceAgain.send("list").contains("1. [T][ ] read book"));
+                }
+                assertTrue(alice.send("bye").contains("Rest well."));
+            }
+        }
+
+        List<Task> saved = new Storage(tempDir.resolve("alice.txt").toString()).load();
+        assertEquals(List.of(new Todo("read book")), saved);
+        assertFalse(tempDir.resolve("bob.txt").toFile().exists());
+    }
+
+    /**
+     * Tests that a user's list is written out and dropped once their last connection ends.
+     */
+    @Test
+    public void close_lastConnectionOfUser_accountEvicted() throws Exception {
+        // Bob stays connected, so only Alice's account goes; her list is loaded again on her return
+        try (ChironServer server = new ChironServer(0, tempDir)) {
+            server.start();
+            try (Client bob = new Client(server.getPort(), "bob")) {
+                bob.send("todo water plants");
+                try (Client alice = new Client(server.getPort(), "alice")) {
+                    alice.send("todo read book");
+                    assertEquals(2, server.getAccountCount());
+                }
+
+                server.awaitAccountCount(1);
+                assertEquals(1, server.getAccountCount());
+                assertEquals(List.of(new Todo("read book")),
+                        new Storage(tempDir.resolve("alice.txt").toString()).load());
+
+                try (Client alice = new Client(server.getPort(), "alice")) {
+                    assertTrue(alice.send("list").contains("1. [T][ ] read book"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the stats command is refused over the server, even inside a batch.
+     */
+    @Test
+    public void send_stats_refused() throws Exception {
+        // The figures cover every user, so no user may see them
+        try (ChironServer server = new ChironServer(0, tempDir)) {
+            server.start();
+            try (Client alice = new Client(server.getPort(), "alice")) {
+                assertTrue(alice.send("stats").contains("only whoever runs it"));
+                // A batch block gets a single reply, after its end line
+                assertTrue(alice.send("batch\nstats\nend").contains("0 of 1 command(s) went through"));
+            }
+        }
+    }
+
+    /**
+     * Tests that a user can import their own files but not the task file of another user.
+     */
+    @Test
+    public void send_importOutsideOwnFolder_rejected() throws Exception {
+        // Absolute and relative paths that leave the import folder are both refused
+        Path imports = Files.createDirectories(tempDir.resolve("imports").resolve("mallory"));
+        Files.write(imports.resolve("chores.txt"), List.of("todo sweep"));
+        try (ChironServer server = new ChironServer(0, tempDir)) {
+            server.start();
+            try (Client alice = new Client(server.getPort(), "alice");
+                    Client mallory = new Client(server.getPort(), "mallory")) {
+                alice.send("todo alice secret plan");
+
+                assertTrue(mallory.send("import " + tempDir.resolve("alice.txt")).contains("your own folder"));
+                assertTrue(mallory.send("import ../../alice.txt").contains("your own folder"));
+                assertTrue(mallory.send("import chores.txt").contains("1 of 1 command(s) went through"));
+                String list = mallory.send("list");
+                assertTrue(list.contains("sweep"));
+                assertFalse(list.contains("secret"));
+            }
+        }
+    }
+
+    /**
+     * Tests many clients of many users sending commands at the same time.
+     */
+    @Test
+    public void send_manyConcurrentClients_allServed() throws Exception {
+        // 200 clients over 20 users, each adding 5 tasks of their own
+        ExecutorService pool = Executors.newFixedThreadPool(50);
+        try (ChironServer server = new ChironServer(0, tempDir)) {
+            server.start();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < 200; c++) {
+                int client = c;
+                futures.add(pool.submit(() -> {
+                    try (Client user = new Client(server.getPort(), "user" + (client % 20))) {
+                        for (int i = 0; i < 5; i++) {
+                            user.send("todo task " + i + " of client " + client);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            try (Client user = new Client(server.getPort(), "user7")) {
+                assertTrue(user.send("list").contains("50. [T]"));
+                assertFalse(user.send("list").contains("51. [T]"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the ListCommand class.
+ */
+public class ListCommandTest {
+
+    private static TaskList tasks(int count) throws ChironException {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= count; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
+
+    private static String render(Response response) {
+        return new TextRenderer(true).render(response);
+    }
+
+    /**
+     * Tests that a plain list shows only the first page, with a footer.
+     */
+    @Test
+    public void execute_noArguments_firstPageShown() throws ChironException {
+        // 250 tasks: only tasks 1-100 are listed
+        String response = render(Parser.parse("list").execute(tasks(250), new Ui(), null));
+
+        assertTrue(response.contains("\n100. [T][ ] task 100\n"));
+        assertFalse(response.contains("task 101"));
+        assertTrue(response.contains("Showing 1-100 of 250."));
+    }
+
+    /**
+     * Tests that pages and ranges keep the numbers of the whole list.
+     */
+    @Test
+    public void execute_pageAndRange_windowShown() throws ChironException {
+        // Numbers must match what mark and delete expect
+        TaskList tasks = tasks(250);
+        String page = render(Parser.parse("list --page 3").execute(tasks, new Ui(), null));
+        assertTrue(page.contains("\n201. [T][ ] task 201\n"));
+        assertTrue(page.contains("Showing 201-250 of 250."));
+
+        String range = render(Parser.parse("ls 20-22").execute(tasks, new Ui(), null));
+        assertEquals(3, range.lines().filter(line -> line.contains(". [T]")).count());
+        assertTrue(range.contains("\n20. [T][ ] task 20\n"));
+    }
+
+    /**
+     * Tests that a list leaves the whole list behind for the GUI table, focused on the requested window.
+     */
+    @Test
+    public void execute_page_listingCoversWholeList() throws ChironException {
+        // The table scrolls to the page rather than holding only its tasks
+        TaskList tasks = tasks(250);
+        Response response = Parser.parse("list --page 2").execute(tasks, new Ui(), null);
+
+        Response.Listing listing = response.listing();
+        assertEquals(250, listing.tasks().size());
+        assertEquals(100, listing.focus());
+        assertNull(Parser.parse("help").execute(tasks, new Ui(), null).listing());
+    }
+
+    /**
+     * Tests that windows beyond the end of the list are rejected.
+     */
+    @Test
+    public void execute_pastEnd_exceptionThrown() throws ChironException {
+        // Page 4 of 250 tasks does not exist, and neither does a backwards range
+        TaskList tasks = tasks(250);
+        assertThrows(ChironException.class, () -> Parser.parse("list --page 4").execute(tasks, new Ui(), null));
+        assertThrows(ChironException.class, () -> Parser.parse("list 30-20").execute(tasks, new Ui(), null));
+    }
+}
@@ -0,0 +1,130 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the Metrics and LatencyHistogram classes.
+ */
+public class MetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a percentile is never below the true value and less than twice it.
+     */
+    @Test
+    public void percentileNanos_knownDurations_withinOneBucket() {
+        // Durations of 1 to 1000 microseconds, so the true p50 is 500 us and the true p99 is 990 us
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500_500, histogram.meanNanos());
+        long p50 = histogram.percentileNanos(50);
+        long p99 = histogram.percentileNanos(99);
+        assertTrue(p50 >= 500_000 && p50 < 1_000_000, "p50 was " + p50);
+        assertTrue(p99 >= 990_000 && p99 < 1_980_000, "p99 was " + p99);
+        assertEquals(0, new LatencyHistogram().percentileNanos(99));
+    }
+
+    /**
+     * Tests that running commands updates the counters and that the stats command reports them per command.
+     */
+    @Test
+    public void execute_commands_countedAndReported() throws ChironException {
+        // The metrics are global, so only the change made by this test is checked
+        Metrics metrics = Metrics.global();
+        Storage storage = new Storage(tempDir.resolve("chiron.txt").toString());
+        TaskList tasks = new TaskList(storage.load());
+        Ui ui = new Ui();
+        long commands = metrics.getCommands();
+        long errors = metrics.getErrors();
+        long added = metrics.getTasksAdded();
+        long removed = metrics.getTasksRemoved();
+        long written = metrics.getBytesWritten();
+
+        Chiron.execute("todo read the manual", tasks, ui, storage);
+        Chiron.execute("delete 1", tasks, ui, storage);
+        Chiron.execute("nonsense", tasks, ui, storage);
+        Response stats = Chiron.execute("stats", tasks, ui, storage);
+
+        assertEquals(commands + 4, metrics.getCommands());
+        assertEquals(errors + 1, metrics.getErrors());
+        assertEquals(added + 1, metrics.getTasksAdded());
+        assertEquals(removed + 1, metrics.getTasksRemoved());
+        assertTrue(metrics.getBytesWritten() > written);
+        assertTrue(stats.lines().stream().anyMatch(line -> line.startsWith("todo: ") && line.contains("p99")));
+        assertTrue(stats.lines().stream().anyMatch(line -> line.startsWith("delete: ")));
+    }
+
+    /**
+     * Tests that the writes and the render of a command are timed under that command.
+     */
+    @Test
+    public void execute_thenRender_saveAndRenderReportedPerCommand() throws ChironException {
+        Storage storage = new Storage(tempDir.resolve("chiron.txt").toString());
+        TaskList tasks = new TaskList(storage.load());
+        Ui ui = new Ui();
+
+        Response added = Chiron.execute("todo water the plants", tasks, ui, storage);
+        new TextRenderer(true).render(added);
+        new TextRenderer(true).render(Response.of("not a command"));
+        Response stats = Chiron.execute("stats", tasks, ui, storage);
+
+        assertEquals(TodoCommand.class, added.command());
+        assertTrue(stats.lines().stream().anyMatch(line -> line.startsWith("todo: ")
+                && line.contains("; save p50 ") && line.contains("; render p50 ")), String.join("\n", stats.lines()));
+    }
+
+    /**
+     * Tests that the registered metrics can be read over JMX.
+     */
+    @Test
+    public void registerMBean_twice_readableOverJmx() throws Exception {
+        // The second registration must be a no-op rather than an error
+        Metrics metrics = Metrics.global();
+        metrics.registerMBean();
+        metrics.registerMBean();
+
+        Object value = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(Metrics.OBJECT_NAME), "Commands");
+        assertEquals(metrics.getCommands(), value);
+    }
+
+    /**
+     * Tests that the size of the find index of a configured list is reported by stats and over JMX.
+     */
+    @Test
+    public void getFindIndexBytes_configuredList_included() throws Exception {
+        // Other tests may have configured lists too, so this list's index is only a lower bound
+        Metrics metrics = Metrics.global();
+        metrics.registerMBean();
+        Storage storage = new Storage(tempDir.resolve("chiron.txt").toString());
+        TaskList tasks = new TaskList(storage.load());
+        Chiron.configure(tasks);
+        Ui ui = new Ui();
+        for (int i = 0; i < 100; i++) {
+            Chiron.execute("todo read chapter " + i, tasks, ui, storage);
+        }
+
+        long bytes = tasks.substringIndexBytes();
+        assertTrue(bytes > 0);
+        assertTrue(metrics.getFindIndexBytes() >= bytes);
+        Object value = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(Metrics.OBJECT_NAME), "FindIndexBytes");
+        assertTrue((Long) value >= bytes);
+        Response stats = Chiron.execute("stats", tasks, ui, storage);
+        assertTrue(stats.lines().stream().anyMatch(line -> line.startsWith("Find index: about ")));
+    }
+}
@@ -0,0 +1,52 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the PackedTime class.
+ */
+public class PackedTimeTest {
+
+    /**
+     * Tests that the hand-written formatting matches DateTimeFormatter on every day over several centuries.
+     */
+    @Test
+    public void format_everyDay_sameAsDateTimeFormatter() {
+        // Leap years, century rules and dates before the epoch are all covered by the range
+        DateTimeFormatter display = DateTimeFormatter.ofPattern("MMM dd yyyy HHmm", Locale.ENGLISH);
+        DateTimeFormatter store = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        for (LocalDate day = LocalDate.of(1600, 1, 1); day.getYear() < 2400; day = day.plusDays(1)) {
+            LocalDateTime dt = day.atTime(day.getDayOfYear() % 24, day.getDayOfMonth() * 7 % 60);
+            long timed = PackedTime.pack(dt, true);
+            long untimed = PackedTime.pack(day.atStartOfDay(), false);
+
+            assertEquals(dt.format(display), PackedTime.format(timed));
+            assertEquals(day.format(store), PackedTime.store(untimed));
+            assertEquals(dt, PackedTime.toDateTime(timed));
+            assertEquals(untimed, PackedTime.of(day.getYear(), day.getMonthValue(), day.getDayOfMonth(), 0, 0, false));
+        }
+    }
+
+    /**
+     * Tests that packed dates compare in time order, and that a whole day ends at the next midnight.
+     */
+    @Test
+    public void pack_dates_orderedByTime() {
+        // A date without a time sorts with midnight of the same day
+        long morning = PackedTime.pack(LocalDateTime.of(1969, 12, 31, 9, 30), true);
+        long day = PackedTime.pack(LocalDateTime.of(1970, 1, 1, 0, 0), false);
+        long noon = PackedTime.pack(LocalDateTime.of(1970, 1, 1, 12, 0), true);
+
+        assertTrue(morning < day && day < noon);
+        assertEquals(PackedTime.epochMinutes(day) + 24 * 60, PackedTime.endMinutes(day));
+        assertEquals(PackedTime.epochMinutes(noon) + 1, PackedTime.endMinutes(noon));
+    }
+}
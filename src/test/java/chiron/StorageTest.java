@@ -0,0 +1,378 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the Storage class.
+ */
+public class StorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that journalled mutations are replayed on load.
+     */
+    @Test
+    public void load_journalRecords_replayed() throws ChironException {
+        // Every mutation goes to the journal; a fresh Storage must see all of them
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        TaskList tasks = new TaskList(storage.load());
+
+        Task first = new Todo("task 1");
+        tasks.add(first);
+        storage.recordAdd(tasks, first);
+        Task second = new Todo("task 2");
+        tasks.add(second);
+        storage.recordAdd(tasks, second);
+        tasks.setDone(1, true);
+        storage.recordSetDone(tasks, 1, true);
+        tasks.remove(0);
+        storage.recordRemove(tasks, 0);
+
+        List<Task> loaded = new Storage(path).load();
+        assertEquals(1, loaded.size());
+        assertEquals("task 2", loaded.get(0).getDescription());
+        assertTrue(loaded.get(0).isDone());
+    }
+
+    /**
+     * Tests that a record torn by a crash is dropped on load, even if it parses, and is not appended to.
+     */
+    @Test
+    public void load_tornLastRecord_cutOffBeforeAppending() throws Exception {
+        // The third record lost its end and its newline; the next adds must start on a line of their own
+        String path = tempDir.resolve("chiron.txt").toString();
+        Files.writeString(tempDir.resolve("chiron.txt.journal"),
+                "1 | A | T | 0 | one\n2 | A | T | 0 | two\n3 | A | T | 0 | th", StandardCharsets.UTF_8);
+
+        Storage storage = new Storage(path);
+        TaskList tasks = new TaskList(storage.load());
+        assertEquals(2, tasks.size());
+        for (String description : List.of("four", "five")) {
+            Task task = new Todo(description);
+            tasks.add(task);
+            storage.recordAdd(tasks, task);
+        }
+
+        List<Task> loaded = new Storage(path).load();
+        assertEquals(List.of(new Todo("one"), new Todo("two"), new Todo("four"), new Todo("five")), loaded);
+    }
+
+    /**
+     * Tests that converting a file in place folds its journal in, rather than replaying it a second time.
+     */
+    @Test
+    public void convert_inPlace_journalNotReplayedTwice() throws ChironException {
+        // Both tasks exist only in the journal before the conversion
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        TaskList tasks = new TaskList(storage.load());
+        for (String description : List.of("one", "two")) {
+            Task task = new Todo(description);
+            tasks.add(task);
+            storage.recordAdd(tasks, task);
+        }
+
+        Storage.convert(path, path, Storage.Format.BINARY);
+
+        assertEquals(List.of(new Todo("one"), new Todo("two")), new Storage(path).load());
+        assertFalse(Files.exists(tempDir.resolve("chiron.txt.journal")));
+    }
+
+    /**
+     * Tests that a full save folds the journal into the snapshot.
+     */
+    @Test
+    public void save_afterJournal_journalCleared() throws ChironException {
+        // Records already in the snapshot must not be applied a second time
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        TaskList tasks = new TaskList(storage.load());
+
+        Task task = new Todo("read book");
+        tasks.add(task);
+        storage.recordAdd(tasks, task);
+        storage.save(tasks);
+
+        assertFalse(Files.exists(tempDir.resolve("chiron.txt.journal")));
+        assertEquals(1, new Storage(path).load().size());
+    }
+
+    /**
+     * Tests that a large journal is compacted into the snapshot in the background.
+     */
+    @Test
+    public void recordAdd_journalOutgrowsSnapshot_compacted() throws Exception {
+        // Past 64 KiB the journal is larger than the (empty) snapshot and must be folded into it
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        TaskList tasks = new TaskList(storage.load());
+
+        for (int i = 0; i < 4000; i++) {
+            Task task = new Todo("task number " + i);
+            tasks.add(task);
+            storage.recordAdd(tasks, task);
+        }
+        storage.awaitCompaction();
+
+        // Records keep being appended while a compaction runs, so only the ones it folded in are known to be gone
+        assertTrue(Files.size(tempDir.resolve("chiron.txt")) > 0);
+        long journalRecords = 0;
+        for (String name : List.of("chiron.txt.journal", "chiron.txt.journal.old")) {
+            Path segment = tempDir.resolve(name);
+            journalRecords += Files.exists(segment) ? Files.readAllLines(segment).size() : 0;
+        }
+        assertTrue(journalRecords < 4000, journalRecords + " records left in the journal");
+        assertEquals(4000, new Storage(path).load().size());
+    }
+
+    /**
+     * Tests that a retired journal segment left by an interrupted compaction is replayed before the journal.
+     */
+    @Test
+    public void load_retiredSegmentLeftBehind_replayedOnce() throws Exception {
+        // Record 2 is in both files, as after a crash between rewriting the segment and renaming the journal
+        String path = tempDir.resolve("chiron.txt").toString();
+        Files.writeString(tempDir.resolve("chiron.txt.journal.old"),
+                "1 | A | T | 0 | one\n2 | A | T | 0 | two\n", StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("chiron.txt.journal"),
+                "2 | A | T | 0 | two\n3 | A | T | 0 | three\n", StandardCharsets.UTF_8);
+
+        Storage storage = new Storage(path);
+        TaskList tasks = new TaskList(storage.load());
+        assertEquals(List.of(new Todo("one"), new Todo("two"), new Todo("three")), tasks.snapshot());
+
+        storage.save(tasks);
+        assertFalse(Files.exists(tempDir.resolve("chiron.txt.journal.old")));
+        assertFalse(Files.exists(tempDir.resolve("chiron.txt.journal")));
+        assertEquals(tasks.snapshot(), new Storage(path).load());
+    }
+
+    /**
+     * Tests that a compaction queued before a batch does not overwrite the snapshot the batch saves.
+     */
+    @Test
+    public void endBatch_compactionPending_batchNotOverwritten() throws Exception {
+        // The background threads are held up, so the compaction of the first add only runs after the batch
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        storage.setCompactionRatio(1e-9);
+        TaskList tasks = new TaskList(storage.load());
+        CountDownLatch started = new CountDownLatch(Storage.BACKGROUND_THREADS);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < Storage.BACKGROUND_THREADS; i++) {
+            Storage.runInBackground(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        started.await();
+
+        try {
+            Task first = new Todo("a");
+            tasks.add(first);
+            storage.recordAdd(tasks, first);
+            storage.beginBatch();
+            for (String description : List.of("b", "c")) {
+                Task task = new Todo(description);
+                tasks.add(task);
+                storage.recordAdd(tasks, task);
+            }
+            storage.endBatch(tasks);
+        } finally {
+            release.countDown();
+        }
+        storage.awaitCompaction();
+
+        assertEquals(List.of(new Todo("a"), new Todo("b"), new Todo("c")), new Storage(path).load());
+    }
+
+    /**
+     * Tests that an fsync save replaces the snapshot without leaving its temporary file behind.
+     */
+    @Test
+    public void save_fsyncDurability_snapshotReplaced() throws ChironException {
+        // The temporary file must be renamed into place, not left next to the snapshot
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        storage.setDurability(Storage.Durability.FSYNC);
+        TaskList tasks = new TaskList(storage.load());
+        tasks.add(new Todo("read book"));
+
+        storage.save(tasks);
+
+        assertFalse(Files.exists(tempDir.resolve("chiron.txt.tmp")));
+        assertEquals("read book", new Storage(path).load().get(0).getDescription());
+    }
+
+    /**
+     * Tests that a parallel load returns the same tasks, in the same order, as a sequential one.
+     */
+    @Test
+    public void load_parallelStrategy_sameAsSequential() throws ChironException {
+        // A zero threshold forces the parallel path even for a small file
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        TaskList tasks = new TaskList(storage.load());
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        storage.save(tasks);
+
+        Storage sequential = new Storage(path);
+        sequential.setLoadStrategy(Storage.LoadStrategy.SEQUENTIAL);
+        Storage parallel = new Storage(path);
+        parallel.setParallelLoadThreshold(0);
+
+        List<Task> expected = sequential.load();
+        List<Task> actual = parallel.load();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toSaveString(), actual.get(i).toSaveString());
+        }
+    }
+
+    /**
+     * Tests that parallel and sequential loads agree on files with any mix of line endings.
+     */
+    @Test
+    public void load_parallelStrategyMixedLineEndings_sameAsSequential() throws Exception {
+        // Bare \r, \r\n and \n, with an empty line and no line end after the last task
+        String path = tempDir.resolve("chiron.txt").toString();
+        Files.writeString(Path.of(path), "# 0\r\nT | 0 | one\rT | 1 | two\r\n\nT | 0 | three\nT | 0 | four",
+                StandardCharsets.UTF_8);
+
+        Storage sequential = new Storage(path);
+        sequential.setLoadStrategy(Storage.LoadStrategy.SEQUENTIAL);
+        Storage parallel = new Storage(path);
+        parallel.setParallelLoadThreshold(0);
+
+        List<Task> expected = sequential.load();
+        assertEquals(4, expected.size());
+        assertEquals(saveStrings(expected), saveStrings(parallel.load()));
+    }
+
+    /**
+     * Tests that a binary snapshot is detected on load and round-trips every field.
+     */
+    @Test
+    public void load_binaryFormat_detected() throws ChironException {
+        // Saving as binary and loading with a default Storage must give back the same tasks
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        storage.setFormat(Storage.Format.BINARY);
+        TaskList tasks = new TaskList(storage.load());
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", LocalDateTime.of(2024, 5, 15, 23, 59), true));
+        tasks.add(new Event("camp fire", LocalDateTime.of(2024, 5, 16, 0, 0), false,
+                LocalDateTime.of(2024, 5, 17, 14, 0), true));
+        tasks.setDone(1, true);
+        storage.save(tasks);
+
+        List<Task> loaded = new Storage(path).load();
+        assertEquals(3, loaded.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(tasks.get(i).toSaveString(), loaded.get(i).toSaveString());
+        }
+    }
+
+    /**
+     * Tests that write-behind mutations are queued until a flush, then written together.
+     */
+    @Test
+    public void recordAdd_writeBehind_writtenOnFlush() throws ChironException {
+        // A delay far longer than the test keeps the flusher out of the way
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        storage.setWriteBehind(60_000, 0);
+        TaskList tasks = new TaskList(storage.load());
+        for (int i = 0; i < 3; i++) {
+            Task task = new Todo("task " + i);
+            tasks.add(task);
+            storage.recordAdd(tasks, task);
+        }
+        tasks.setDone(2, true);
+        storage.recordSetDone(tasks, 2, true);
+
+        assertFalse(Files.exists(tempDir.resolve("chiron.txt.journal")));
+        storage.flush();
+        List<Task> loaded = new Storage(path).load();
+        assertEquals(3, loaded.size());
+        assertTrue(loaded.get(2).isDone());
+    }
+
+    /**
+     * Tests that queued mutations are written within the delay, or by the caller once the limit is reached.
+     */
+    @Test
+    public void recordAdd_writeBehindBounds_flushedInTime() throws Exception {
+        // The limit flushes synchronously; the remaining mutation must be written by the flusher
+        String path = tempDir.resolve("chiron.txt").toString();
+        Storage storage = new Storage(path);
+        storage.setJournaling(false);
+        storage.setWriteBehind(500, 2);
+        TaskList tasks = new TaskList(storage.load());
+        for (int i = 0; i < 3; i++) {
+            Task task = new Todo("task " + i);
+            tasks.add(task);
+            storage.recordAdd(tasks, task);
+        }
+
+        assertEquals(2, new Storage(path).load().size());
+        storage.awaitFlush();
+        assertEquals(3, new Storage(path).load().size());
+    }
+
+    /**
+     * Tests that storages in write-behind mode share the background threads and are flushed on close.
+     */
+    @Test
+    public void close_manyWriteBehindStorages_flushedOnSharedThreads() throws Exception {
+        // 100 storages must not start 100 flusher threads; close writes what the long delay still holds
+        List<Storage> storages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Storage storage = new Storage(tempDir.resolve("user" + i + ".txt").toString());
+            storage.setWriteBehind(60_000, 0);
+            TaskList tasks = new TaskList(storage.load());
+            Task task = new Todo("task of user " + i);
+            tasks.add(task);
+            storage.recordAdd(tasks, task);
+            storages.add(storage);
+        }
+
+        long threads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("chiron-storage-"))
+                .count();
+        assertTrue(threads <= 2, threads + " background threads");
+        for (Storage storage : storages) {
+            storage.close();
+        }
+        for (int i = 0; i < 100; i++) {
+            List<Task> loaded = new Storage(tempDir.resolve("user" + i + ".txt").toString()).load();
+            assertEquals(List.of(new Todo("task of user " + i)), loaded);
+        }
+    }
+
+    private static List<String> saveStrings(List<Task> tasks) {
+        return tasks.stream().map(Task::toSaveString).toList();
+    }
+}
@@ -0,0 +1,41 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the TaskLineParser class.
+ */
+public class TaskLineParserTest {
+
+    /**
+     * Tests that a saved event round-trips through the parser.
+     */
+    @Test
+    public void parse_eventLine_success() {
+        // Both the fixed-width date and date-time forms are read directly
+        Task t = new TaskLineParser().parse("E | 1 | camp fire | 2024-05-16 1400 | 2024-05-17");
+        assertEquals("E | 1 | camp fire | 2024-05-16 1400 | 2024-05-17", t.toSaveString());
+    }
+
+    /**
+     * Tests that out-of-range days are resolved the same way as by the Parser.
+     */
+    @Test
+    public void parse_dayPastEndOfMonth_clampedLikeParser() {
+        // The formatter clamps Feb 30 to Feb 28; the fast path must not change that
+        Task t = new TaskLineParser().parse("D | 0 | submit | 2021-02-30");
+        assertEquals("D | 0 | submit | 2021-02-28", t.toSaveString());
+    }
+
+    /**
+     * Tests that lines missing fields are rejected.
+     */
+    @Test
+    public void parse_missingDate_null() {
+        // A trailing empty field does not count, just like with String.split
+        assertNull(new TaskLineParser().parse("D | 0 | submit | "));
+    }
+}
@@ -1,6 +1,18 @@
 package chiron;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Test;
 
@@ -50,4 +62,330 @@ public class TaskListTest {
 
         assertEquals(t, tasks.get(0));
     }
+
+    /**
+     * Tests that a task equal to one already in the list is rejected.
+     */
+    @Test
+    public void add_duplicateTask_exceptionThrown() throws ChironException {
+        // Equality is by type, description and dates; removing the original frees the slot again
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("read book", LocalDateTime.of(2026, 1, 1, 0, 0), false));
+
+        assertThrows(ChironException.class, () -> tasks.add(new Todo("read book")));
+        assertEquals(2, tasks.size());
+
+        tasks.remove(0);
+        tasks.add(new Todo("read book"));
+        assertEquals(2, tasks.size());
+    }
+
+    /**
+     * Tests whole-word and prefix searches through the keyword index.
+     */
+    @Test
+    public void findWordAndPrefix_indexedTasks_matchesInListOrder() throws ChironException {
+        // Prefix results span several words but must still come back in list order
+        TaskList tasks = new TaskList();
+        Task notebook = new Todo("buy notebook");
+        Task read = new Todo("Read the Book");
+        Task note = new Todo("note: bookmark page");
+        tasks.add(notebook);
+        tasks.add(read);
+        tasks.add(note);
+
+        assertEquals(List.of(read), tasks.findWord("book"));
+        assertEquals(List.of(read, note), tasks.findPrefix("BOOK"));
+
+        tasks.remove(1);
+        assertEquals(List.of(), tasks.findWord("book"));
+        assertEquals(List.of(note), tasks.findPrefix("book"));
+    }
+
+    /**
+     * Tests that indexed substring search gives the same results as a scan, even past the memory limit.
+     */
+    @Test
+    public void find_substringIndex_sameAsScan() throws ChironException {
+        // Matches may span words and must survive removals; a tiny limit disables the index
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Todo("read book " + i));
+            tasks.add(new Todo("bookmark page " + i));
+        }
+        tasks.remove(0);
+
+        List<Task> expected = tasks.asUnmodifiableList().stream()
+                .filter(t -> t.getDescription().contains("ok 1"))
+                .toList();
+        assertEquals(expected, tasks.find("ok 1"));
+        assertTrue(tasks.substringIndexBytes() > 0);
+
+        tasks.setSubstringIndexLimit(1);
+        assertEquals(0, tasks.substringIndexBytes());
+        assertEquals(expected, tasks.find("ok 1"));
+    }
+
+    /**
+     * Tests that the view follows the list while a snapshot stays fixed and is reused until the list changes.
+     */
+    @Test
+    public void snapshot_listChanged_viewUpdatedSnapshotFixed() throws ChironException {
+        // The view is live, while a snapshot stays as it was when taken
+        TaskList tasks = new TaskList();
+        Task first = new Todo("task 1");
+        tasks.add(first);
+        List<Task> view = tasks.asUnmodifiableList();
+        List<Task> snapshot = tasks.snapshot();
+        assertSame(snapshot, tasks.snapshot());
+
+        tasks.add(new Todo("task 2"));
+        assertEquals(2, view.size());
+        assertEquals(List.of(first), snapshot);
+        assertNotSame(snapshot, tasks.snapshot());
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+    }
+
+    /**
+     * Tests that snapshots taken between random adds and removes match a plain list, across segment merges.
+     */
+    @Test
+    public void snapshot_randomAddsAndRemoves_sameAsArrayList() throws ChironException {
+        // Enough tasks for several segments, then removals until most segments have been merged away
+        Random random = new Random(7);
+        TaskList tasks = new TaskList();
+        List<Task> expected = new ArrayList<>();
+        List<List<Task>> snapshots = new ArrayList<>();
+        List<List<Task>> copies = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                Task task = new Todo("task " + i);
+                tasks.add(task);
+                expected.add(task);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), tasks.remove(index));
+            }
+            if (i % 500 == 0) {
+                snapshots.add(tasks.snapshot());
+                copies.add(List.copyOf(expected));
+            }
+        }
+        while (expected.size() > 10) {
+            int index = random.nextInt(expected.size());
+            assertSame(expected.remove(index), tasks.remove(index));
+        }
+
+        assertEquals(expected, tasks.snapshot());
+        assertEquals(expected.get(expected.size() - 1), tasks.get(expected.size() - 1));
+        assertEquals(copies, snapshots);
+    }
+
+    /**
+     * Tests that concurrent adds, marks, removes and searches leave the list and its indexes consistent.
+     */
+    @Test
+    public void add_concurrentWritersAndReaders_consistent() throws Exception {
+        // Writers add and mark while readers search, then all of them remove from the front at once
+        TaskList tasks = new TaskList();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            int writer = w;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    tasks.add(new Todo("writer " + writer + " task " + i));
+                    tasks.setDone(0, i % 2 == 0);
+                }
+                return null;
+            }));
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    tasks.find("writer " + writer);
+                    tasks.snapshot().forEach(Task::isDone);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        assertEquals(2000, tasks.size());
+
+        futures.clear();
+        for (int w = 0; w < 4; w++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    tasks.remove(0);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(1000, tasks.size());
+        assertEquals(1000, tasks.findWord("writer").size());
+        assertEquals(tasks.snapshot(), tasks.find("writer"));
+    }
+
+    /**
+     * Tests that a date range finds deadlines and events by any of their dates, once each, in date order.
+     */
+    @Test
+    public void findBetween_datedTasks_foundInDateOrder() throws ChironException {
+        // The event starts before the range and ends inside it, so it is found by its end
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("essay", LocalDateTime.of(2024, 5, 20, 0, 0), false));
+        tasks.add(new Event("camp", LocalDateTime.of(2024, 4, 28, 9, 0), true,
+                LocalDateTime.of(2024, 5, 2, 17, 0), true));
+        tasks.add(new Deadline("rent", LocalDateTime.of(2024, 6, 1, 0, 0), false));
+        tasks.add(new Event("talk", LocalDateTime.of(2024, 5, 10, 14, 0), true,
+                LocalDateTime.of(2024, 5, 10, 15, 0), true));
+
+        List<Task> found = tasks.findBetween(LocalDateTime.of(2024, 5, 1, 0, 0), LocalDateTime.of(2024, 5, 31, 23, 59));
+
+        assertEquals(List.of("camp", "talk", "essay"), found.stream().map(Task::getDescription).toList());
+        tasks.remove(1);
+        assertEquals(2, tasks.findBetween(LocalDateTime.of(2024, 5, 1, 0, 0),
+                LocalDateTime.of(2024, 5, 31, 23, 59)).size());
+        assertEquals(List.of("talk", "rent"), tasks.findUpcoming(LocalDateTime.of(2024, 5, 3, 0, 0), 5).stream()
+                .map(Task::getDescription).toList());
+    }
+
+    /**
+     * Tests that overlapping events are found, while events that only meet at a boundary are not.
+     */
+    @Test
+    public void findConflicts_overlappingEvents_pairsFound() throws ChironException {
+        // The meeting ends as the lunch starts; the all-day camp covers both
+        TaskList tasks = new TaskList();
+        Event meeting = new Event("meeting", LocalDateTime.of(2024, 5, 1, 10, 0), true,
+                LocalDateTime.of(2024, 5, 1, 12, 0), true);
+        Event lunch = new Event("lunch", LocalDateTime.of(2024, 5, 1, 12, 0), true,
+                LocalDateTime.of(2024, 5, 1, 13, 0), true);
+        Event camp = new Event("camp", LocalDateTime.of(2024, 4, 30, 0, 0), false,
+                LocalDateTime.of(2024, 5, 1, 0, 0), false);
+        Event talk = new Event("talk", LocalDateTime.of(2024, 5, 2, 9, 0), true,
+                LocalDateTime.of(2024, 5, 2, 10, 0), true);
+        tasks.add(meeting);
+        tasks.add(lunch);
+        tasks.add(camp);
+        tasks.add(talk);
+
+        assertEquals(List.of(new TaskList.Conflict(camp, meeting), new TaskList.Conflict(camp, lunch)),
+                tasks.findConflicts(10).pairs());
+        assertEquals(List.of(camp), tasks.findOverlapping(meeting));
+        tasks.remove(2);
+        assertEquals(0, tasks.findConflicts(10).count());
+    }
+
+    /**
+     * Tests that the interval tree finds the same overlaps as checking every event.
+     */
+    @Test
+    public void findOverlapping_randomEvents_sameAsScan() throws ChironException {
+        // Removing every third event checks that the tree stays consistent through deletes
+        Random random = new Random(42);
+        TaskList tasks = new TaskList();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime from = base.plusMinutes(random.nextInt(20_000));
+            tasks.add(new Event("event " + i, from, true, from.plusMinutes(1 + random.nextInt(600)), true));
+        }
+        for (int i = tasks.size() - 1; i >= 0; i -= 3) {
+            tasks.remove(i);
+        }
+
+        List<Task> all = tasks.snapshot();
+        long pairs = 0;
+        for (Task task : all) {
+            Event event = (Event) task;
+            List<Event> expected = new ArrayList<>();
+            for (Task other : all) {
+                Event o = (Event) other;
+                if (o != event && o.from().isBefore(event.to()) && event.from().isBefore(o.to())) {
+                    expected.add(o);
+                }
+            }
+            assertEquals(expected.size(), tasks.findOverlapping(event).size());
+            pairs += expected.size();
+        }
+        assertEquals(pairs / 2, tasks.findConflicts(Integer.MAX_VALUE).pairs().size());
+        assertEquals(pairs / 2, tasks.findConflicts(3).count());
+        assertEquals(3, tasks.findConflicts(3).pairs().size());
+    }
+
+    /**
+     * Tests that only the pairs up to the limit are kept when every event overlaps every other.
+     */
+    @Test
+    public void findConflicts_allOverlapping_keepsLimitAndCountsRest() throws ChironException {
+        // 2,000 events on the same day overlap in about two million pairs, far more than are shown
+        TaskList tasks = new TaskList();
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 9, 0);
+        int n = 2_000;
+        for (int i = 0; i < n; i++) {
+            tasks.add(new Event("event " + i, from.plusSeconds(i), true, from.plusHours(8), true));
+        }
+
+        TaskList.ConflictReport report = tasks.findConflicts(Ui.MAX_CONFLICTS_SHOWN);
+        assertEquals(Ui.MAX_CONFLICTS_SHOWN, report.pairs().size());
+        assertEquals((long) n * (n - 1) / 2, report.count());
+        assertEquals(new TaskList.Conflict((Event) tasks.get(0), (Event) tasks.get(1)), report.pairs().get(0));
+    }
+
+    /**
+     * Tests that a compact list holds the same tasks and answers every search as an indexed one.
+     */
+    @Test
+    public void compact_randomChangesAndSearches_sameAsIndexed() throws ChironException {
+        // Tasks of all three kinds, with a few shared words and dates close enough to overlap
+        Random random = new Random(7);
+        String[] words = {"Read", "book", "bookshop", "meet", "meeting", "gym"};
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        TaskList indexed = new TaskList();
+        TaskList compact = TaskList.compact(List.of());
+        for (int i = 0; i < 600; i++) {
+            String description = words[random.nextInt(words.length)] + " " + i;
+            LocalDateTime from = base.plusMinutes(random.nextInt(10_000));
+            Task task = switch (i % 3) {
+                case 0 -> new Todo(description);
+                case 1 -> new Deadline(description, from, random.nextBoolean());
+                default -> new Event(description, from, true, from.plusMinutes(1 + random.nextInt(300)), true);
+            };
+            indexed.add(task);
+            compact.add(task);
+        }
+        for (int i = indexed.size() - 1; i >= 0; i -= 4) {
+            assertEquals(indexed.remove(i), compact.remove(i));
+        }
+        for (int i = 0; i < indexed.size(); i += 5) {
+            indexed.setDone(i, true);
+            compact.setDone(i, true);
+        }
+
+        assertThrows(ChironException.class, () -> compact.add(new Todo(indexed.get(0).getDescription())));
+        assertEquals(saveStrings(indexed.snapshot()), saveStrings(compact.snapshot()));
+        assertEquals(indexed.find("ook"), compact.find("ook"));
+        assertEquals(indexed.findWord("read"), compact.findWord("read"));
+        assertEquals(indexed.findPrefix("meet"), compact.findPrefix("meet"));
+        LocalDateTime from = base.plusDays(2);
+        assertEquals(indexed.findBetween(from, from.plusDays(1)), compact.findBetween(from, from.plusDays(1)));
+        assertEquals(indexed.findUpcoming(from, 20), compact.findUpcoming(from, 20));
+        for (Task task : indexed.snapshot()) {
+            if (task instanceof Event event) {
+                assertEquals(indexed.findOverlapping(event), compact.findOverlapping(event));
+            }
+        }
+        assertEquals(indexed.findConflicts(50), compact.findConflicts(50));
+    }
+
+    private static List<String> saveStrings(List<Task> tasks) {
+        return tasks.stream().map(Task::toSaveString).toList();
+    }
 }
@@ -0,0 +1,79 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the TaskStore class.
+ */
+public class TaskStoreTest {
+
+    /**
+     * Tests that stored tasks come back equal, with their done status and date flags.
+     */
+    @Test
+    public void get_storedTasks_equalToOriginals() {
+        // Non-ASCII descriptions check that the arena holds UTF-8 bytes, not chars
+        List<Task> tasks = List.of(new Todo("read book"),
+                new Deadline("return bök", LocalDateTime.of(2024, 5, 15, 23, 59), true),
+                new Event("camp fire", LocalDateTime.of(2024, 5, 16, 0, 0), false,
+                        LocalDateTime.of(2024, 5, 17, 14, 0), true));
+        tasks.get(1).setDone(true);
+
+        TaskStore store = TaskStore.of(tasks);
+
+        assertEquals(tasks, store.toList());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toSaveString(), store.get(i).toSaveString());
+        }
+    }
+
+    /**
+     * Tests that removes shift the remaining tasks and their done flags, through arena compaction.
+     */
+    @Test
+    public void remove_manyTasks_sameAsList() {
+        // Removing every other task leaves half the arena unused, which triggers a compaction
+        List<Task> expected = new ArrayList<>();
+        TaskStore store = new TaskStore();
+        for (int i = 0; i < 1000; i++) {
+            Task task = new Todo("task " + i);
+            task.setDone(i % 3 == 0);
+            expected.add(task);
+            store.add(task);
+        }
+        for (int i = expected.size() - 2; i >= 0; i -= 2) {
+            assertEquals(expected.remove(i), store.remove(i));
+        }
+        store.setDone(0, false);
+        expected.get(0).setDone(false);
+
+        assertEquals(500, store.size());
+        assertFalse(store.isDone(0));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toSaveString(), store.get(i).toSaveString());
+        }
+    }
+
+    /**
+     * Tests that a task is found by value, without regard to its done status.
+     */
+    @Test
+    public void indexOf_equalTasks_foundByValue() {
+        // Same descriptions under different kinds or dates are different tasks
+        LocalDateTime due = LocalDateTime.of(2024, 5, 15, 23, 59);
+        TaskStore store = TaskStore.of(List.of(new Todo("pay rent"), new Deadline("pay rent", due, true)));
+        store.setDone(1, true);
+
+        assertEquals(0, store.indexOf(new Todo("pay rent")));
+        assertEquals(1, store.indexOf(new Deadline("pay rent", due, true)));
+        assertEquals(-1, store.indexOf(new Deadline("pay rent", due.plusDays(1), true)));
+        assertEquals(-1, store.indexOf(new Todo("pay bills")));
+    }
+}
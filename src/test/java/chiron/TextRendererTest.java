@@ -0,0 +1,24 @@
+package chiron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the TextRenderer class.
+ */
+public class TextRendererTest {
+
+    /**
+     * Tests that the same response renders with or without the console's horizontal lines.
+     */
+    @Test
+    public void render_boxedAndPlain_sameLines() {
+        // Only the console frames a reply in lines
+        Response response = new Ui().showError("Find what?");
+        String line = "____________________________________________________________\n";
+
+        assertEquals(line + "Chiron: Find what?\n" + line, new TextRenderer(true).render(response));
+        assertEquals("Chiron: Find what?\n", new TextRenderer(false).render(response));
+    }
+}